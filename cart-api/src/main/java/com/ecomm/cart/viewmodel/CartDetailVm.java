@@ -0,0 +1,9 @@
+package com.ecomm.cart.viewmodel;
+
+import java.util.List;
+
+/**
+ * Cart lines with their product thumbnails. {@code partial} is set when the product service did not answer within
+ * the enrichment deadline and some lines are missing their thumbnail.
+ */
+public record CartDetailVm(List<CartItemDetailVm> items, boolean partial) {}
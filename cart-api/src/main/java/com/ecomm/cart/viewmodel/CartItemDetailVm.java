@@ -0,0 +1,14 @@
+package com.ecomm.cart.viewmodel;
+
+import lombok.Builder;
+
+/**
+ * A cart line joined with its product thumbnail; {@code product} is null when the thumbnail could not be loaded.
+ */
+@Builder
+public record CartItemDetailVm(
+    String customerId,
+    Long productId,
+    Integer quantity,
+    ProductThumbnailVm product
+) {}
@@ -0,0 +1,9 @@
+package com.ecomm.cart.viewmodel;
+
+import java.util.List;
+
+/**
+ * One page of cart lines ordered by product id. {@code nextCursor} fetches the following page and is null on the
+ * last one.
+ */
+public record CartItemPageVm(List<CartItemGetVm> items, String nextCursor) {}
@@ -0,0 +1,41 @@
+package com.ecomm.cart.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the cart benchmarks with the GC profiler attached, so every result comes with its allocation rate
+ * ({@code gc.alloc.rate.norm}, bytes per operation).
+ *
+ * <pre>
+ * mvn -pl cart-benchmarks -am package -DskipTests
+ * java -jar cart-benchmarks/target/benchmarks.jar                 # every suite
+ * java -jar cart-benchmarks/target/benchmarks.jar CartItemMapper  # regexp filter, any JMH option is accepted
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+            .parent(commandLine)
+            .addProfiler(GCProfiler.class);
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(BenchmarkRunner.class.getPackageName());
+        }
+        try {
+            new Runner(options.build()).run();
+        } catch (RunnerException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.ecomm.cart.benchmark;
+
+import com.ecomm.cart.model.CartItem;
+import com.ecomm.cart.viewmodel.CartItemDeleteVm;
+import com.ecomm.cart.viewmodel.CartItemPostVm;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deterministic cart contents shared by the benchmarks.
+ */
+final class CartItemFixtures {
+    static final String CUSTOMER_ID = "123";
+
+    private CartItemFixtures() {
+    }
+
+    static List<CartItem> cartItems(int size) {
+        List<CartItem> cartItems = new ArrayList<>(size);
+        for (long productId = 1; productId <= size; productId++) {
+            cartItems.add(CartItem.builder()
+                .customerId(CUSTOMER_ID)
+                .productId(productId)
+                .quantity((int) (productId % 5) + 1)
+                .build());
+        }
+        return cartItems;
+    }
+
+    /**
+     * Removal request touching every line: a third of the products twice, odd lines entirely.
+     */
+    static List<CartItemDeleteVm> deleteVms(int size) {
+        List<CartItemDeleteVm> deleteVms = new ArrayList<>(size + size / 3);
+        for (long productId = 1; productId <= size; productId++) {
+            deleteVms.add(new CartItemDeleteVm(productId, productId % 2 == 0 ? 1 : 5));
+            if (productId % 3 == 0) {
+                deleteVms.add(new CartItemDeleteVm(productId, 1));
+            }
+        }
+        return deleteVms;
+    }
+
+    /**
+     * Additions putting back what {@link #deleteVms} removes from {@link #cartItems} of the same size.
+     */
+    static List<CartItemPostVm> restockVms(int size) {
+        Map<Long, Integer> removedByProductId = new LinkedHashMap<>();
+        for (CartItemDeleteVm deleteVm : deleteVms(size)) {
+            removedByProductId.merge(deleteVm.productId(), deleteVm.quantity(), Integer::sum);
+        }
+        List<CartItemPostVm> restockVms = new ArrayList<>(size);
+        for (CartItem cartItem : cartItems(size)) {
+            int removed = Math.min(cartItem.getQuantity(), removedByProductId.get(cartItem.getProductId()));
+            restockVms.add(new CartItemPostVm(cartItem.getProductId(), removed));
+        }
+        return restockVms;
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecomm.cart.benchmark;
+
+import com.ecomm.cart.mapper.CartItemMapper;
+import com.ecomm.cart.viewmodel.CartItemGetVm;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Serializes the GET /storefront/cart/items response body with an ObjectMapper configured like Spring MVC's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartItemJsonBenchmark {
+    @Param({"1", "10", "100"})
+    int cartSize;
+
+    private ObjectWriter objectWriter;
+    private List<CartItemGetVm> cartItemGetVms;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        objectWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+            .constructCollectionType(List.class, CartItemGetVm.class));
+        cartItemGetVms = new CartItemMapper().toGetVms(CartItemFixtures.cartItems(cartSize));
+    }
+
+    @Benchmark
+    public byte[] writeCartItems() throws JsonProcessingException {
+        return objectWriter.writeValueAsBytes(cartItemGetVms);
+    }
+}
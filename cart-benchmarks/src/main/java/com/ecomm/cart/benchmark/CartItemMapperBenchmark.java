@@ -0,0 +1,51 @@
+package com.ecomm.cart.benchmark;
+
+import com.ecomm.cart.mapper.CartItemMapper;
+import com.ecomm.cart.model.CartItem;
+import com.ecomm.cart.viewmodel.CartItemGetVm;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartItemMapperBenchmark {
+    @Param({"1", "10", "100"})
+    int cartSize;
+
+    private final CartItemMapper cartItemMapper = new CartItemMapper();
+    private CartItem cartItem;
+    private List<CartItem> cartItems;
+
+    @Setup
+    public void setUp() {
+        cartItems = CartItemFixtures.cartItems(cartSize);
+        cartItem = cartItems.get(0);
+    }
+
+    @Benchmark
+    public CartItemGetVm toGetVm() {
+        return cartItemMapper.toGetVm(cartItem);
+    }
+
+    @Benchmark
+    public List<CartItemGetVm> toGetVms() {
+        return cartItemMapper.toGetVms(cartItems);
+    }
+}
@@ -0,0 +1,175 @@
+package com.ecomm.cart.benchmark;
+
+import com.ecomm.cart.cache.CartInvalidationBus;
+import com.ecomm.cart.cache.CartItemCache;
+import com.ecomm.cart.concurrency.CartWriteExecutor;
+import com.ecomm.cart.config.CartConcurrencyProperties;
+import com.ecomm.cart.config.CartInvalidationProperties;
+import com.ecomm.cart.config.CartOutboxProperties;
+import com.ecomm.cart.config.CartReplicaProperties;
+import com.ecomm.cart.config.ProductServiceProperties;
+import com.ecomm.cart.mapper.CartItemMapper;
+import com.ecomm.cart.model.CartItem;
+import com.ecomm.cart.outbox.CartOutbox;
+import com.ecomm.cart.repository.CartItemRepository;
+import com.ecomm.cart.routing.ReadYourWrites;
+import com.ecomm.cart.routing.ReplicaReads;
+import com.ecomm.cart.service.CartItemService;
+import com.ecomm.cart.service.CartVersionService;
+import com.ecomm.cart.service.ProductService;
+import com.ecomm.cart.store.RowCartStore;
+import com.ecomm.cart.viewmodel.CartItemDeleteVm;
+import com.ecomm.cart.viewmodel.CartItemGetVm;
+import com.ecomm.cart.viewmodel.CartItemPostVm;
+import com.ecomm.cart.viewmodel.CartItemPutVm;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Service-level cost of each cart operation with the database replaced by {@link InMemoryCartItemRepository}, so the
+ * numbers cover merging, mapping and cache bookkeeping only. Product validation is switched off.
+ *
+ * <p>The cart is filled once per iteration rather than per call: a per-invocation setup would dominate these
+ * sub-microsecond calls and its allocations would be counted in {@code gc.alloc.rate.norm}. Every operation therefore
+ * leaves the cart as it found it, or only grows quantities. The removals put back what they take out within the
+ * measured call; {@link #restockCart} and {@link #addCartItem} report that share on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartItemServiceBenchmark {
+    @Param({"10", "100"})
+    int cartSize;
+
+    private ProductService productService;
+    private CartConcurrencyProperties concurrencyProperties;
+    private CartWriteExecutor cartWriteExecutor;
+    private CartItemService cartItemService;
+    private CartItemCache cartItemCache;
+    private List<CartItemPostVm> cartItemPostVms;
+    private List<CartItemDeleteVm> cartItemDeleteVms;
+    private List<CartItemPostVm> restockVms;
+    private CartItemPostVm deletedCartItemPostVm;
+    private final CartItemPostVm cartItemPostVm = new CartItemPostVm(1L, 1);
+    private final CartItemPutVm cartItemPutVm = new CartItemPutVm(3);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ProductServiceProperties productProperties = new ProductServiceProperties("http://localhost", false,
+            1, Duration.ZERO, Duration.ZERO, Duration.ZERO, 1, Duration.ZERO);
+        productService = new ProductService(RestClient.create(), productProperties, new SimpleMeterRegistry());
+        concurrencyProperties = new CartConcurrencyProperties(
+            CartConcurrencyProperties.Mode.OPTIMISTIC, 16, Duration.ofSeconds(1), 1, Duration.ZERO, Duration.ZERO, 0, 1);
+        cartWriteExecutor = new CartWriteExecutor(TransactionOperations.withoutTransaction(), concurrencyProperties,
+            new SimpleMeterRegistry());
+        cartItemPostVms = new ArrayList<>(cartSize);
+        for (long productId = 1; productId <= cartSize; productId++) {
+            cartItemPostVms.add(new CartItemPostVm(productId, 1));
+        }
+        cartItemDeleteVms = CartItemFixtures.deleteVms(cartSize);
+        restockVms = CartItemFixtures.restockVms(cartSize);
+        CartItem deletedCartItem = CartItemFixtures.cartItems(cartSize).get(0);
+        deletedCartItemPostVm = new CartItemPostVm(deletedCartItem.getProductId(), deletedCartItem.getQuantity());
+    }
+
+    /**
+     * Starts every iteration from a freshly filled, cached cart.
+     */
+    @Setup(Level.Iteration)
+    public void fillCart() {
+        CartItemRepository cartItemRepository = InMemoryCartItemRepository.create();
+        cartItemRepository.saveAll(CartItemFixtures.cartItems(cartSize));
+        cartItemCache = new CartItemCache(Caffeine.newBuilder().build());
+        CartInvalidationProperties invalidationProperties = new CartInvalidationProperties(
+            false, "cart_changed", Duration.ZERO, Duration.ZERO, Duration.ZERO);
+        CartOutboxProperties outboxProperties = new CartOutboxProperties(false, false, 0, 0, Duration.ZERO, Duration.ZERO);
+        CartReplicaProperties replicaProperties =
+            new CartReplicaProperties(false, List.of(), null, null, 1, Duration.ZERO, Duration.ZERO, 0);
+        cartItemService = new CartItemService(
+            new RowCartStore(cartItemRepository, new CartItemMapper(), concurrencyProperties), cartItemCache,
+            new CartInvalidationBus(cartItemCache, null, invalidationProperties,
+                new ReadYourWrites(replicaProperties, null)),
+            productService, cartWriteExecutor,
+            new CartVersionService(InMemoryCartVersionRepository.create(), new CartOutbox(null, outboxProperties)),
+            new ReplicaReads(TransactionOperations.withoutTransaction()));
+        cartItemService.getCartItems();
+    }
+
+    @Benchmark
+    public CartItemGetVm addCartItem() {
+        return cartItemService.addCartItem(cartItemPostVm);
+    }
+
+    @Benchmark
+    public List<CartItemGetVm> addCartItems() {
+        return cartItemService.addCartItems(cartItemPostVms);
+    }
+
+    @Benchmark
+    public CartItemGetVm updateCartItem() {
+        return cartItemService.updateCartItem(1L, cartItemPutVm);
+    }
+
+    @Benchmark
+    public List<CartItemGetVm> getCartItems() {
+        return cartItemService.getCartItems();
+    }
+
+    @Benchmark
+    public List<CartItemGetVm> getCartItemsUncached() {
+        cartItemCache.evictAll();
+        return cartItemService.getCartItems();
+    }
+
+    /**
+     * Merges duplicated product ids and splits the request into decrements and deletions, which since the single
+     * statement rewrite happens in {@code decrementOrDelete}; the stub replays that split in memory. Includes
+     * restocking the lines first, see {@link #restockCart}.
+     */
+    @Benchmark
+    public List<CartItemGetVm> deleteOrAdjustCartItem() {
+        cartItemService.addCartItems(restockVms);
+        return cartItemService.deleteOrAdjustCartItem(cartItemDeleteVms);
+    }
+
+    /**
+     * The restocking {@link #deleteOrAdjustCartItem} starts with, on a cart that already holds every line.
+     */
+    @Benchmark
+    public List<CartItemGetVm> restockCart() {
+        return cartItemService.addCartItems(restockVms);
+    }
+
+    /**
+     * Includes adding the line back first, which costs about one {@link #addCartItem}.
+     */
+    @Benchmark
+    public void deleteCartItem() {
+        cartItemService.addCartItem(deletedCartItemPostVm);
+        cartItemService.deleteCartItem(deletedCartItemPostVm.productId());
+    }
+}
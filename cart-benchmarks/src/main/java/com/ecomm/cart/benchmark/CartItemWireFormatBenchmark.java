@@ -0,0 +1,98 @@
+package com.ecomm.cart.benchmark;
+
+import com.ecomm.cart.mapper.CartItemMapper;
+import com.ecomm.cart.viewmodel.CartItemGetVm;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Encodes and decodes the GET /storefront/cart/items response body in each wire format the cart API negotiates.
+ * The {@code payloadBytes} secondary result reports the encoded size next to the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartItemWireFormatBenchmark {
+    @Param({"json", "cbor", "smile"})
+    String format;
+
+    @Param({"1", "10", "100"})
+    int cartSize;
+
+    private ObjectWriter objectWriter;
+    private ObjectReader objectReader;
+    private List<CartItemGetVm> cartItemGetVms;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().factory(jsonFactory(format)).build();
+        JavaType cartItemsType = objectMapper.getTypeFactory().constructCollectionType(List.class, CartItemGetVm.class);
+        objectWriter = objectMapper.writerFor(cartItemsType);
+        objectReader = objectMapper.readerFor(cartItemsType);
+        cartItemGetVms = new CartItemMapper().toGetVms(CartItemFixtures.cartItems(cartSize));
+        payload = objectWriter.writeValueAsBytes(cartItemGetVms);
+    }
+
+    @Benchmark
+    public byte[] encode(PayloadSize payloadSize) throws IOException {
+        byte[] encoded = objectWriter.writeValueAsBytes(cartItemGetVms);
+        payloadSize.payloadBytes = encoded.length;
+        return encoded;
+    }
+
+    @Benchmark
+    public List<CartItemGetVm> decode() throws IOException {
+        return objectReader.readValue(payload);
+    }
+
+    /**
+     * Surfaces the payload size as a secondary result, which JMH reports per format and cart size.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        public long payloadBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            payloadBytes = 0;
+        }
+    }
+
+    private static JsonFactory jsonFactory(String format) {
+        return switch (format) {
+            case "json" -> new JsonFactory();
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> throw new IllegalArgumentException(format);
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package com.ecomm.cart.benchmark;
+
+import com.ecomm.cart.config.CartRateLimitProperties;
+import com.ecomm.cart.limit.CustomerRateLimiter;
+import com.ecomm.cart.limit.CustomerRateLimiter.EndpointClass;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of one rate limit check under contention: every thread hitting the bucket of one customer, every thread on
+ * its own customer, and threads spread over more customers than are tracked, so buckets keep being evicted and
+ * recreated. The rates are high enough for most checks to take a token, i.e. to go through the compare-and-set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class CustomerRateLimiterBenchmark {
+    private static final String SHARED_CUSTOMER_ID = "123";
+
+    @Param({"100000"})
+    private int maxCustomers;
+
+    private CustomerRateLimiter customerRateLimiter;
+    private String[] customerIds;
+
+    @Setup
+    public void setUp() {
+        CartRateLimitProperties.Bucket bucket = new CartRateLimitProperties.Bucket(1_000, 600_000_000);
+        customerRateLimiter = new CustomerRateLimiter(new CartRateLimitProperties(
+            true, maxCustomers, Duration.ofMinutes(10), bucket, bucket, bucket));
+        customerIds = new String[maxCustomers * 10];
+        for (int i = 0; i < customerIds.length; i++) {
+            customerIds[i] = "customer-" + i;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadCustomer {
+        private static final AtomicInteger NEXT_THREAD = new AtomicInteger();
+
+        private final String customerId = "thread-" + NEXT_THREAD.getAndIncrement();
+    }
+
+    @Benchmark
+    public long sharedCustomer() {
+        return customerRateLimiter.tryAcquire(SHARED_CUSTOMER_ID, EndpointClass.ADD);
+    }
+
+    @Benchmark
+    public long customerPerThread(ThreadCustomer threadCustomer) {
+        return customerRateLimiter.tryAcquire(threadCustomer.customerId, EndpointClass.ADD);
+    }
+
+    @Benchmark
+    public long evictingCustomers() {
+        String customerId = customerIds[ThreadLocalRandom.current().nextInt(customerIds.length)];
+        return customerRateLimiter.tryAcquire(customerId, EndpointClass.ADD);
+    }
+}
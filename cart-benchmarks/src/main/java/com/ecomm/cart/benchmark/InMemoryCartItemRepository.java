@@ -0,0 +1,111 @@
+package com.ecomm.cart.benchmark;
+
+import com.ecomm.cart.model.CartItem;
+import com.ecomm.cart.repository.CartItemRepository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Map-backed stand-in for {@link CartItemRepository} so the service can be benchmarked without a database.
+ * Only the methods {@code RowCartStore} calls are implemented; anything else fails loudly.
+ */
+final class InMemoryCartItemRepository implements InvocationHandler {
+    private final Map<String, Map<Long, Integer>> quantitiesByCustomer = new ConcurrentHashMap<>();
+
+    static CartItemRepository create() {
+        return (CartItemRepository) Proxy.newProxyInstance(
+            CartItemRepository.class.getClassLoader(),
+            new Class<?>[] {CartItemRepository.class},
+            new InMemoryCartItemRepository());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "findByCustomerId" -> findByCustomerId((String) args[0]);
+            case "findByCustomerIdAndProductId" -> findByCustomerIdAndProductId((String) args[0], (Long) args[1]);
+            case "findByCustomerIdAndProductIdIn" ->
+                findByCustomerIdAndProductIdIn((String) args[0], (List<Long>) args[1]);
+            case "upsertAddQuantity" -> upsert((String) args[0], (Long) args[1], (Integer) args[2], true);
+            case "upsertSetQuantity" -> upsert((String) args[0], (Long) args[1], (Integer) args[2], false);
+            case "decrementOrDelete" -> decrementOrDelete((String) args[0], (Long[]) args[1], (Integer[]) args[2]);
+            case "deleteByCustomerIdAndProductId" -> {
+                cart((String) args[0]).remove((Long) args[1]);
+                yield null;
+            }
+            case "saveAll" -> saveAll((Iterable<CartItem>) args[0]);
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "InMemoryCartItemRepository";
+            default -> throw new UnsupportedOperationException(method.getName());
+        };
+    }
+
+    private List<CartItem> findByCustomerId(String customerId) {
+        List<CartItem> cartItems = new ArrayList<>();
+        cart(customerId).forEach((productId, quantity) -> cartItems.add(toCartItem(customerId, productId, quantity)));
+        return cartItems;
+    }
+
+    private Optional<CartItem> findByCustomerIdAndProductId(String customerId, Long productId) {
+        return Optional.ofNullable(cart(customerId).get(productId))
+            .map(quantity -> toCartItem(customerId, productId, quantity));
+    }
+
+    private List<CartItem> findByCustomerIdAndProductIdIn(String customerId, List<Long> productIds) {
+        Map<Long, Integer> cart = cart(customerId);
+        List<CartItem> cartItems = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            Integer quantity = cart.get(productId);
+            if (quantity != null) {
+                cartItems.add(toCartItem(customerId, productId, quantity));
+            }
+        }
+        return cartItems;
+    }
+
+    private CartItem upsert(String customerId, Long productId, int quantity, boolean add) {
+        int saved = cart(customerId).merge(productId, quantity, add ? Integer::sum : (current, given) -> given);
+        return toCartItem(customerId, productId, saved);
+    }
+
+    private List<CartItem> decrementOrDelete(String customerId, Long[] productIds, Integer[] quantities) {
+        Map<Long, Integer> cart = cart(customerId);
+        List<CartItem> adjusted = new ArrayList<>();
+        for (int i = 0; i < productIds.length; i++) {
+            int removed = quantities[i];
+            Integer remaining = cart.computeIfPresent(productIds[i],
+                (productId, quantity) -> quantity > removed ? quantity - removed : null);
+            if (remaining != null) {
+                adjusted.add(toCartItem(customerId, productIds[i], remaining));
+            }
+        }
+        return adjusted;
+    }
+
+    private List<CartItem> saveAll(Iterable<CartItem> cartItems) {
+        List<CartItem> saved = new ArrayList<>();
+        for (CartItem cartItem : cartItems) {
+            cart(cartItem.getCustomerId()).put(cartItem.getProductId(), cartItem.getQuantity());
+            saved.add(cartItem);
+        }
+        return saved;
+    }
+
+    private Map<Long, Integer> cart(String customerId) {
+        return quantitiesByCustomer.computeIfAbsent(customerId, id -> new ConcurrentSkipListMap<>());
+    }
+
+    private static CartItem toCartItem(String customerId, Long productId, int quantity) {
+        return CartItem.builder().customerId(customerId).productId(productId).quantity(quantity).build();
+    }
+}
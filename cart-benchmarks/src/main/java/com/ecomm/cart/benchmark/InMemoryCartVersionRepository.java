@@ -0,0 +1,36 @@
+package com.ecomm.cart.benchmark;
+
+import com.ecomm.cart.repository.CartVersionRepository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Map-backed stand-in for {@link CartVersionRepository}, see {@link InMemoryCartItemRepository}.
+ */
+final class InMemoryCartVersionRepository implements InvocationHandler {
+    private final Map<String, Long> versionByCustomer = new ConcurrentHashMap<>();
+
+    static CartVersionRepository create() {
+        return (CartVersionRepository) Proxy.newProxyInstance(
+            CartVersionRepository.class.getClassLoader(),
+            new Class<?>[] {CartVersionRepository.class},
+            new InMemoryCartVersionRepository());
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "findVersionByCustomerId" -> Optional.ofNullable(versionByCustomer.get((String) args[0]));
+            case "increment" -> versionByCustomer.merge((String) args[0], 1L, Long::sum);
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "InMemoryCartVersionRepository";
+            default -> throw new UnsupportedOperationException(method.getName());
+        };
+    }
+}
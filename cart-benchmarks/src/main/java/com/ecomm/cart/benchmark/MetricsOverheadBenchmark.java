@@ -0,0 +1,73 @@
+package com.ecomm.cart.benchmark;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of recording one repository call on the Prometheus timers configured in application.properties, compared to
+ * the unmeasured call and to a plain timer without histogram. Runs with several threads since every request thread
+ * records into the same series.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class MetricsOverheadBenchmark {
+    private static final long CALL_TOKENS = 50;
+
+    private Timer plainTimer;
+    private Timer histogramTimer;
+
+    @Setup
+    public void setUp() {
+        PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        plainTimer = Timer.builder("cart.benchmark.plain")
+            .tag("method", "findByCustomerId")
+            .tag("state", "SUCCESS")
+            .register(meterRegistry);
+        histogramTimer = Timer.builder("cart.benchmark.histogram")
+            .tag("method", "findByCustomerId")
+            .tag("state", "SUCCESS")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(100_000))
+            .maximumExpectedValue(Duration.ofSeconds(2))
+            .serviceLevelObjectives(Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(25),
+                Duration.ofMillis(50))
+            .register(meterRegistry);
+    }
+
+    @Benchmark
+    public void unmeasured() {
+        Blackhole.consumeCPU(CALL_TOKENS);
+    }
+
+    @Benchmark
+    public void plainTimer() {
+        plainTimer.record(() -> Blackhole.consumeCPU(CALL_TOKENS));
+    }
+
+    @Benchmark
+    public void histogramTimer() {
+        histogramTimer.record(() -> Blackhole.consumeCPU(CALL_TOKENS));
+    }
+}
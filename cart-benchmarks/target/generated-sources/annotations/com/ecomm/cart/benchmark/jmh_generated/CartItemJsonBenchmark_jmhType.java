@@ -0,0 +1,4 @@
+package com.ecomm.cart.benchmark.jmh_generated;
+public class CartItemJsonBenchmark_jmhType extends CartItemJsonBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.ecomm.cart.benchmark.jmh_generated;
+public class CartItemMapperBenchmark_jmhType extends CartItemMapperBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.ecomm.cart.benchmark.jmh_generated;
+public class CartItemServiceBenchmark_jmhType extends CartItemServiceBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.ecomm.cart.benchmark.jmh_generated;
+public class CartItemWireFormatBenchmark_PayloadSize_jmhType extends CartItemWireFormatBenchmark_PayloadSize_jmhType_B3 {
+}
+
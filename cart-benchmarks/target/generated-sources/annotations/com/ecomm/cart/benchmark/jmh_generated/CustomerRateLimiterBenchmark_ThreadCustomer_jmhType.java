@@ -0,0 +1,4 @@
+package com.ecomm.cart.benchmark.jmh_generated;
+public class CustomerRateLimiterBenchmark_ThreadCustomer_jmhType extends CustomerRateLimiterBenchmark_ThreadCustomer_jmhType_B3 {
+}
+
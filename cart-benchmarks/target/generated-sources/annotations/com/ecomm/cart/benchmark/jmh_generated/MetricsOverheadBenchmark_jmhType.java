@@ -0,0 +1,4 @@
+package com.ecomm.cart.benchmark.jmh_generated;
+public class MetricsOverheadBenchmark_jmhType extends MetricsOverheadBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,18 @@
+package com.ecomm.cart.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * WebFlux and R2DBC variant of the cart endpoints, kept to compare latency and memory per connection with the
+ * servlet stack. It is read/compare-only: see {@link com.ecomm.cart.reactive.service.CartItemService} for what its
+ * writes leave out before it may take production traffic.
+ */
+@SpringBootApplication
+public class CartReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(CartReactiveApplication.class, args);
+	}
+
+}
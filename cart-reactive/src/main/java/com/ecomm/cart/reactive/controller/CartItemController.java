@@ -0,0 +1,55 @@
+package com.ecomm.cart.reactive.controller;
+
+import com.ecomm.cart.reactive.service.CartItemService;
+import com.ecomm.cart.viewmodel.CartItemDeleteVm;
+import com.ecomm.cart.viewmodel.CartItemGetVm;
+import com.ecomm.cart.viewmodel.CartItemPostVm;
+import com.ecomm.cart.viewmodel.CartItemPutVm;
+
+import jakarta.validation.Valid;
+
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+
+@RestController
+@RequiredArgsConstructor
+public class CartItemController {
+    private final CartItemService cartItemService;
+
+    @PostMapping("/storefront/cart/items")
+    public Mono<ResponseEntity<CartItemGetVm>> addCartItem(@Valid @RequestBody CartItemPostVm cartItemPostVm) {
+        return cartItemService.addCartItem(cartItemPostVm).map(ResponseEntity::ok);
+    }
+
+    @PutMapping("/storefront/cart/items/{productId}")
+    public Mono<ResponseEntity<CartItemGetVm>> updateCartItem(@PathVariable Long productId,
+                                                              @Valid @RequestBody CartItemPutVm cartItemPutVm) {
+        return cartItemService.updateCartItem(productId, cartItemPutVm).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/storefront/cart/items")
+    public Flux<CartItemGetVm> getCartItems() {
+        return cartItemService.getCartItems();
+    }
+
+    @PostMapping("/storefront/cart/items/remove")
+    public Flux<CartItemGetVm> removeCartItems(@RequestBody List<@Valid CartItemDeleteVm> cartItemDeleteVms) {
+        return cartItemService.deleteOrAdjustCartItem(cartItemDeleteVms);
+    }
+
+    @DeleteMapping("/storefront/cart/items/{productId}")
+    public Mono<ResponseEntity<Void>> deleteCartItem(@PathVariable Long productId) {
+        return cartItemService.deleteCartItem(productId).thenReturn(ResponseEntity.noContent().<Void>build());
+    }
+}
@@ -0,0 +1,19 @@
+package com.ecomm.cart.reactive.mapper;
+
+import com.ecomm.cart.reactive.model.CartItem;
+import com.ecomm.cart.viewmodel.CartItemGetVm;
+
+import org.springframework.stereotype.Component;
+
+
+@Component
+public class CartItemMapper {
+    public CartItemGetVm toGetVm(CartItem cartItem) {
+        return CartItemGetVm
+            .builder()
+            .customerId(cartItem.customerId())
+            .productId(cartItem.productId())
+            .quantity(cartItem.quantity())
+            .build();
+    }
+}
@@ -0,0 +1,10 @@
+package com.ecomm.cart.reactive.model;
+
+import lombok.Builder;
+
+/**
+ * Row of {@code cart_item}, the same table the servlet cart service writes.
+ */
+@Builder
+public record CartItem(String customerId, Long productId, int quantity) {
+}
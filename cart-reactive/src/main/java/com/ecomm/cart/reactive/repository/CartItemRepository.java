@@ -0,0 +1,129 @@
+package com.ecomm.cart.reactive.repository;
+
+import com.ecomm.cart.reactive.model.CartItem;
+
+import io.r2dbc.spi.Readable;
+
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of the servlet service's {@code CartItemRepository}, issuing the same statements. Spring Data
+ * R2DBC repositories do not support composite keys, so queries go through {@link DatabaseClient} directly.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CartItemRepository {
+    private final DatabaseClient databaseClient;
+
+    public Mono<CartItem> findByCustomerIdAndProductId(String customerId, Long productId) {
+        return databaseClient
+            .sql("SELECT * FROM cart_item WHERE customer_id = :customerId AND product_id = :productId")
+            .bind("customerId", customerId)
+            .bind("productId", productId)
+            .map(CartItemRepository::toCartItem)
+            .one();
+    }
+
+    public Flux<CartItem> findByCustomerIdAndProductIdIn(String customerId, List<Long> productIds) {
+        return databaseClient
+            .sql("SELECT * FROM cart_item WHERE customer_id = :customerId AND product_id = ANY(:productIds)")
+            .bind("customerId", customerId)
+            .bind("productIds", productIds.toArray(Long[]::new))
+            .map(CartItemRepository::toCartItem)
+            .all();
+    }
+
+    public Flux<CartItem> findByCustomerId(String customerId) {
+        return databaseClient
+            .sql("SELECT * FROM cart_item WHERE customer_id = :customerId")
+            .bind("customerId", customerId)
+            .map(CartItemRepository::toCartItem)
+            .all();
+    }
+
+    public Mono<Long> deleteByCustomerIdAndProductId(String customerId, Long productId) {
+        return databaseClient
+            .sql("DELETE FROM cart_item WHERE customer_id = :customerId AND product_id = :productId")
+            .bind("customerId", customerId)
+            .bind("productId", productId)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    /**
+     * Inserts a cart item or adds the given quantity to the existing one in a single atomic statement.
+     */
+    public Mono<CartItem> upsertAddQuantity(String customerId, Long productId, int quantity) {
+        return upsert("""
+            INSERT INTO cart_item (customer_id, product_id, quantity)
+            VALUES (:customerId, :productId, :quantity)
+            ON CONFLICT (customer_id, product_id)
+            DO UPDATE SET quantity = cart_item.quantity + EXCLUDED.quantity, version = cart_item.version + 1
+            RETURNING *
+            """, customerId, productId, quantity);
+    }
+
+    /**
+     * Inserts a cart item or overwrites the quantity of the existing one in a single atomic statement.
+     */
+    public Mono<CartItem> upsertSetQuantity(String customerId, Long productId, int quantity) {
+        return upsert("""
+            INSERT INTO cart_item (customer_id, product_id, quantity)
+            VALUES (:customerId, :productId, :quantity)
+            ON CONFLICT (customer_id, product_id)
+            DO UPDATE SET quantity = EXCLUDED.quantity, version = cart_item.version + 1
+            RETURNING *
+            """, customerId, productId, quantity);
+    }
+
+    /**
+     * Deletes the lines whose quantity would drop to zero or below and decrements the others, in one statement.
+     * Only the decremented lines are emitted.
+     */
+    public Flux<CartItem> decrementOrDelete(String customerId, Long[] productIds, Integer[] quantities) {
+        return databaseClient
+            .sql("""
+                WITH request AS (
+                    SELECT *
+                    FROM unnest(CAST(:productIds AS bigint[]), CAST(:quantities AS int[])) AS r(product_id, quantity)
+                ),
+                deleted AS (
+                    DELETE FROM cart_item c
+                    USING request r
+                    WHERE c.customer_id = :customerId AND c.product_id = r.product_id AND c.quantity <= r.quantity
+                )
+                UPDATE cart_item c
+                SET quantity = c.quantity - r.quantity, version = c.version + 1
+                FROM request r
+                WHERE c.customer_id = :customerId AND c.product_id = r.product_id AND c.quantity > r.quantity
+                RETURNING c.*
+                """)
+            .bind("customerId", customerId)
+            .bind("productIds", productIds)
+            .bind("quantities", quantities)
+            .map(CartItemRepository::toCartItem)
+            .all();
+    }
+
+    private Mono<CartItem> upsert(String sql, String customerId, Long productId, int quantity) {
+        return databaseClient
+            .sql(sql)
+            .bind("customerId", customerId)
+            .bind("productId", productId)
+            .bind("quantity", quantity)
+            .map(CartItemRepository::toCartItem)
+            .one();
+    }
+
+    private static CartItem toCartItem(Readable row) {
+        return new CartItem(
+            row.get("customer_id", String.class),
+            row.get("product_id", Long.class),
+            row.get("quantity", Integer.class));
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecomm.cart.reactive.service;
+
+import com.ecomm.cart.reactive.mapper.CartItemMapper;
+import com.ecomm.cart.reactive.repository.CartItemRepository;
+import com.ecomm.cart.viewmodel.CartItemDeleteVm;
+import com.ecomm.cart.viewmodel.CartItemGetVm;
+import com.ecomm.cart.viewmodel.CartItemPostVm;
+import com.ecomm.cart.viewmodel.CartItemPutVm;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cart endpoints over R2DBC, for load comparisons against the servlet service only.
+ *
+ * <p>Writes change {@code cart_item} rows and nothing else. Unlike the servlet write path they do not bump
+ * {@code cart_version}, so cart ETags served by the servlet nodes go stale; do not queue a {@code cart_outbox} event,
+ * so downstream consumers miss the change; and do not {@code pg_notify} the invalidation channel, so servlet nodes
+ * keep serving the cached cart. They also assume the row layout. Run writes against a database no servlet node
+ * serves, or read-only against a shared one, until the write side reaches parity.
+ */
+@Service
+@RequiredArgsConstructor
+public class CartItemService {
+    private final CartItemRepository cartItemRepository;
+    private final CartItemMapper cartItemMapper;
+
+    public Mono<CartItemGetVm> addCartItem(CartItemPostVm cartItemPostVm) {
+        // String currentUserId = AuthenticationUtils.extractUserId();
+        String currentUserId = "123";
+        return cartItemRepository
+            .upsertAddQuantity(currentUserId, cartItemPostVm.productId(), cartItemPostVm.quantity())
+            .map(cartItemMapper::toGetVm);
+    }
+
+    public Mono<CartItemGetVm> updateCartItem(Long productId, CartItemPutVm cartItemPutVm) {
+        // String currentUserId = AuthenticationUtils.extractUserId();
+        String currentUserId = "123";
+        return cartItemRepository
+            .upsertSetQuantity(currentUserId, productId, cartItemPutVm.quantity())
+            .map(cartItemMapper::toGetVm);
+    }
+
+    public Flux<CartItemGetVm> getCartItems() {
+        // String currentUserId = AuthenticationUtils.extractUserId();
+        String currentUserId = "123";
+        return cartItemRepository
+            .findByCustomerId(currentUserId)
+            .map(cartItemMapper::toGetVm);
+    }
+
+    public Flux<CartItemGetVm> deleteOrAdjustCartItem(List<CartItemDeleteVm> cartItemDeleteVms) {
+        // String currentUserId = AuthenticationUtils.extractUserId();
+        String currentUserId = "123";
+        Map<Long, Integer> quantityByProductId = cartItemDeleteVms
+            .stream()
+            .collect(Collectors.toMap(
+                CartItemDeleteVm::productId,
+                CartItemDeleteVm::quantity,
+                Integer::sum,
+                LinkedHashMap::new));
+        if (quantityByProductId.isEmpty()) {
+            return Flux.empty();
+        }
+
+        return cartItemRepository
+            .decrementOrDelete(
+                currentUserId,
+                quantityByProductId.keySet().toArray(Long[]::new),
+                quantityByProductId.values().toArray(Integer[]::new))
+            .map(cartItemMapper::toGetVm);
+    }
+
+    public Mono<Void> deleteCartItem(Long productId) {
+        // String currentUserId = AuthenticationUtils.extractUserId();
+        String currentUserId = "123";
+        return cartItemRepository
+            .deleteByCustomerIdAndProductId(currentUserId, productId)
+            .then();
+    }
+}
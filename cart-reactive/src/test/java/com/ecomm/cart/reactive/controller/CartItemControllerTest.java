@@ -0,0 +1,133 @@
+package com.ecomm.cart.reactive.controller;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ecomm.cart.reactive.service.CartItemService;
+import com.ecomm.cart.viewmodel.CartItemDeleteVm;
+import com.ecomm.cart.viewmodel.CartItemGetVm;
+import com.ecomm.cart.viewmodel.CartItemPostVm;
+
+import java.util.List;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+
+@WebFluxTest(CartItemController.class)
+public class CartItemControllerTest {
+    private static final Long PRODUCT_ID_SAMPLE = 1L;
+    private static final String CUSTOMER_ID_SAMPLE = "customerId";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private CartItemService cartItemService;
+
+    @Nested
+    class AddToCartTest {
+
+        @Test
+        void testAddToCart_whenQuantityIsLessThanOne_shouldReturnBadRequest() {
+            webTestClient.post()
+                .uri("/storefront/cart/items")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CartItemPostVm(PRODUCT_ID_SAMPLE, 0))
+                .exchange()
+                .expectStatus().isBadRequest();
+        }
+
+        @Test
+        void testAddToCart_whenRequestIsValid_shouldReturnCartItem() {
+            CartItemPostVm cartItemPostVm = new CartItemPostVm(PRODUCT_ID_SAMPLE, 1);
+            CartItemGetVm expectedCartItem = new CartItemGetVm(CUSTOMER_ID_SAMPLE, PRODUCT_ID_SAMPLE, 1);
+
+            when(cartItemService.addCartItem(cartItemPostVm)).thenReturn(Mono.just(expectedCartItem));
+
+            webTestClient.post()
+                .uri("/storefront/cart/items")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(cartItemPostVm)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.productId").isEqualTo(PRODUCT_ID_SAMPLE)
+                .jsonPath("$.quantity").isEqualTo(1);
+
+            verify(cartItemService).addCartItem(cartItemPostVm);
+        }
+    }
+
+    @Nested
+    class GetCartItemsTest {
+
+        @Test
+        void testGetCartItems_whenRequestIsValid_shouldReturnCartItems() {
+            CartItemGetVm expectedCartItem = new CartItemGetVm(CUSTOMER_ID_SAMPLE, PRODUCT_ID_SAMPLE, 1);
+
+            when(cartItemService.getCartItems()).thenReturn(Flux.just(expectedCartItem));
+
+            webTestClient.get()
+                .uri("/storefront/cart/items")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].productId").isEqualTo(PRODUCT_ID_SAMPLE)
+                .jsonPath("$[0].quantity").isEqualTo(1);
+        }
+    }
+
+    @Nested
+    class DeleteOrAdjustCartItemTest {
+
+        @Test
+        void testDeleteOrAdjustCartItem_whenQuantityIsLessThanOne_shouldReturnBadRequest() {
+            webTestClient.post()
+                .uri("/storefront/cart/items/remove")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(new CartItemDeleteVm(PRODUCT_ID_SAMPLE, -1)))
+                .exchange()
+                .expectStatus().isBadRequest();
+        }
+
+        @Test
+        void testDeleteOrAdjustCartItem_whenRequestIsValid_shouldReturnAdjustedCartItems() {
+            CartItemGetVm adjustedCartItem = new CartItemGetVm(CUSTOMER_ID_SAMPLE, PRODUCT_ID_SAMPLE, 1);
+
+            when(cartItemService.deleteOrAdjustCartItem(anyList())).thenReturn(Flux.just(adjustedCartItem));
+
+            webTestClient.post()
+                .uri("/storefront/cart/items/remove")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(new CartItemDeleteVm(PRODUCT_ID_SAMPLE, 1)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].quantity").isEqualTo(1);
+        }
+    }
+
+    @Nested
+    class DeleteCartItemTest {
+
+        @Test
+        void testDeleteCartItem_whenRequestIsValid_shouldReturnNoContent() {
+            when(cartItemService.deleteCartItem(PRODUCT_ID_SAMPLE)).thenReturn(Mono.empty());
+
+            webTestClient.delete()
+                .uri("/storefront/cart/items/" + PRODUCT_ID_SAMPLE)
+                .exchange()
+                .expectStatus().isNoContent();
+
+            verify(cartItemService).deleteCartItem(PRODUCT_ID_SAMPLE);
+        }
+    }
+}
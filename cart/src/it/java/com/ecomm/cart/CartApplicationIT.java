@@ -0,0 +1,22 @@
+package com.ecomm.cart;
+
+import com.ecomm.cart.support.PostgresTestContainer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@SpringBootTest
+class CartApplicationIT {
+
+	@DynamicPropertySource
+	static void postgresProperties(DynamicPropertyRegistry registry) {
+		PostgresTestContainer.registerProperties(registry);
+	}
+
+	@Test
+	void contextLoads() {
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.ecomm.cart.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ecomm.cart.CartApplication;
+import com.ecomm.cart.config.CartStoreProperties;
+import com.ecomm.cart.store.CartStore;
+import com.ecomm.cart.support.PostgresTestContainer;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Boots the cart service once per layout, fills the same carts and times full-cart reads and single-line updates
+ * against them. Also reports the on-disk size of the layout's table with its indexes.
+ */
+@Slf4j
+class CartLayoutIT {
+    private static final int CARTS = 1_000;
+    private static final int LINES_PER_CART = 30;
+    private static final int OPERATIONS = 10_000;
+
+    @ParameterizedTest(name = "cart.store.layout={0}")
+    @EnumSource(CartStoreProperties.Layout.class)
+    void measureLayout(CartStoreProperties.Layout layout) {
+        PostgreSQLContainer<?> postgres = PostgresTestContainer.getContainer();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CartApplication.class).run(
+            "--spring.main.web-application-type=none",
+            "--spring.datasource.url=" + postgres.getJdbcUrl(),
+            "--spring.datasource.username=" + postgres.getUsername(),
+            "--spring.datasource.password=" + postgres.getPassword(),
+            "--cart.cache.invalidation.enabled=false",
+            "--cart.store.layout=" + layout)) {
+            CartStore cartStore = context.getBean(CartStore.class);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            String table = layout == CartStoreProperties.Layout.ROW ? "cart_item" : "cart_document";
+            jdbcTemplate.execute("TRUNCATE " + table);
+
+            Duration fill = time(() -> {
+                for (int cart = 0; cart < CARTS; cart++) {
+                    cartStore.addQuantities(customerId(cart), lines());
+                }
+            });
+            jdbcTemplate.execute("VACUUM ANALYZE " + table);
+            Duration reads = time(() -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    assertThat(cartStore.findAll(randomCustomerId())).hasSize(LINES_PER_CART);
+                }
+            });
+            Duration updates = time(() -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    cartStore.addQuantity(randomCustomerId(), ThreadLocalRandom.current().nextLong(LINES_PER_CART), 1);
+                }
+            });
+            Long size = jdbcTemplate.queryForObject("SELECT pg_total_relation_size(?::regclass)", Long.class, table);
+            // The container is shared with the integration tests that follow
+            jdbcTemplate.execute("TRUNCATE " + table);
+
+            log.info("layout={}: fill {} ms, {} reads/s, {} updates/s, {} kB on disk", layout, fill.toMillis(),
+                perSecond(reads), perSecond(updates), size / 1024);
+        }
+    }
+
+    private static Map<Long, Integer> lines() {
+        Map<Long, Integer> lines = new LinkedHashMap<>();
+        for (long productId = 0; productId < LINES_PER_CART; productId++) {
+            lines.put(productId, 1);
+        }
+        return lines;
+    }
+
+    private static String customerId(int cart) {
+        return "customer-" + cart;
+    }
+
+    private static String randomCustomerId() {
+        return customerId(ThreadLocalRandom.current().nextInt(CARTS));
+    }
+
+    private static Duration time(Runnable run) {
+        long start = System.nanoTime();
+        run.run();
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    private static long perSecond(Duration elapsed) {
+        return OPERATIONS * 1_000L / Math.max(1, elapsed.toMillis());
+    }
+}
@@ -0,0 +1,101 @@
+package com.ecomm.cart.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ecomm.cart.CartApplication;
+import com.ecomm.cart.config.CartConcurrencyProperties;
+import com.ecomm.cart.repository.CartItemRepository;
+import com.ecomm.cart.service.CartItemService;
+import com.ecomm.cart.support.PostgresTestContainer;
+import com.ecomm.cart.viewmodel.CartItemGetVm;
+import com.ecomm.cart.viewmodel.CartItemPostVm;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Boots the cart service once per concurrency mode and has many writers add the same products to the same cart, the
+ * worst case for conflicts. Reports throughput and retries per mode, and checks no increment was lost.
+ */
+@Slf4j
+class ConcurrencyModeContentionIT {
+    private static final int WRITERS = 32;
+    private static final int WRITES_PER_WRITER = 20;
+    private static final List<CartItemPostVm> BATCH = List.of(
+        new CartItemPostVm(1L, 1), new CartItemPostVm(2L, 1), new CartItemPostVm(3L, 1));
+
+    @ParameterizedTest(name = "cart.concurrency.mode={0}")
+    @EnumSource(CartConcurrencyProperties.Mode.class)
+    void measureContendedBatchAdds(CartConcurrencyProperties.Mode mode) throws Exception {
+        PostgreSQLContainer<?> postgres = PostgresTestContainer.getContainer();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CartApplication.class).run(
+            "--server.port=0",
+            "--spring.datasource.url=" + postgres.getJdbcUrl(),
+            "--spring.datasource.username=" + postgres.getUsername(),
+            "--spring.datasource.password=" + postgres.getPassword(),
+            "--spring.datasource.hikari.maximum-pool-size=20",
+            "--cart.product.validation-enabled=false",
+            "--cart.concurrency.mode=" + mode,
+            "--cart.concurrency.max-attempts=10",
+            "--cart.concurrency.retry-budget-reserve=100000")) {
+            CartItemService cartItemService = context.getBean(CartItemService.class);
+            CartItemRepository cartItemRepository = context.getBean(CartItemRepository.class);
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            cartItemRepository.deleteAll();
+
+            AtomicInteger succeeded = new AtomicInteger();
+            AtomicInteger failed = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> writers = new ArrayList<>(WRITERS);
+            long startNanos;
+            try (ExecutorService executor = Executors.newFixedThreadPool(WRITERS)) {
+                for (int writer = 0; writer < WRITERS; writer++) {
+                    writers.add(executor.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < WRITES_PER_WRITER; i++) {
+                            try {
+                                cartItemService.addCartItems(BATCH);
+                                succeeded.incrementAndGet();
+                            } catch (RuntimeException e) {
+                                failed.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                startNanos = System.nanoTime();
+                start.countDown();
+                for (Future<?> writer : writers) {
+                    writer.get();
+                }
+            }
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+
+            double retries = meterRegistry.get("cart.write.retries").tag("outcome", "retried").counter().count();
+            log.info("mode={}: {} batches in {} ms, {} batches/s, {} retries, {} failures", mode,
+                succeeded.get(), elapsed.toMillis(), succeeded.get() * 1_000L / Math.max(1, elapsed.toMillis()),
+                (long) retries, failed.get());
+
+            List<CartItemGetVm> cartItems = cartItemService.getCartItems();
+            // The container is shared with the integration tests that follow
+            cartItemRepository.deleteAll();
+            assertThat(cartItems).hasSize(BATCH.size())
+                .allSatisfy(cartItem -> assertThat(cartItem.quantity()).isEqualTo(succeeded.get()));
+            assertThat(succeeded.get()).isPositive();
+        }
+    }
+}
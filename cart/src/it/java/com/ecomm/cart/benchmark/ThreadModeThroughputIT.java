@@ -0,0 +1,101 @@
+package com.ecomm.cart.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ecomm.cart.CartApplication;
+import com.ecomm.cart.repository.CartItemRepository;
+import com.ecomm.cart.support.PostgresTestContainer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Boots the cart service once per thread mode and drives the same add-to-cart load against it, so the throughput of
+ * Tomcat's platform thread pool and of virtual threads can be compared on the same Postgres.
+ */
+@Slf4j
+class ThreadModeThroughputIT {
+    private static final int CLIENTS = 400;
+    private static final int REQUESTS_PER_CLIENT = 25;
+    private static final int TOMCAT_MAX_THREADS = 50;
+
+    @ParameterizedTest(name = "spring.threads.virtual.enabled={0}")
+    @ValueSource(booleans = {false, true})
+    void measureAddCartItemThroughput(boolean virtualThreads) throws Exception {
+        PostgreSQLContainer<?> postgres = PostgresTestContainer.getContainer();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CartApplication.class).run(
+            "--server.port=0",
+            "--server.tomcat.threads.max=" + TOMCAT_MAX_THREADS,
+            "--spring.threads.virtual.enabled=" + virtualThreads,
+            "--spring.datasource.url=" + postgres.getJdbcUrl(),
+            "--spring.datasource.username=" + postgres.getUsername(),
+            "--spring.datasource.password=" + postgres.getPassword(),
+            "--spring.datasource.hikari.maximum-pool-size=20",
+            "--cart.product.validation-enabled=false")) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String contextPath = context.getEnvironment().getProperty("server.servlet.context-path", "");
+            URI uri = URI.create("http://localhost:" + port + contextPath + "/storefront/cart/items");
+
+            Result result = drive(uri);
+            // The container is shared with the integration tests that follow
+            context.getBean(CartItemRepository.class).deleteAll();
+
+            log.info("virtual threads={}: {} requests in {} ms, {} req/s, {} failures", virtualThreads,
+                result.requests(), result.elapsed().toMillis(), result.throughput(), result.failures());
+            assertThat(result.failures()).isZero();
+        }
+    }
+
+    private Result drive(URI uri) throws Exception {
+        AtomicInteger failures = new AtomicInteger();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient httpClient = HttpClient.newBuilder().executor(clients).build()) {
+            List<Future<?>> runs = new ArrayList<>(CLIENTS);
+            long start = System.nanoTime();
+            for (int client = 0; client < CLIENTS; client++) {
+                String body = "{\"productId\":" + client + ",\"quantity\":1}";
+                HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+                runs.add(clients.submit(() -> {
+                    for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> run : runs) {
+                run.get();
+            }
+            return new Result(CLIENTS * REQUESTS_PER_CLIENT, Duration.ofNanos(System.nanoTime() - start),
+                failures.get());
+        }
+    }
+
+    private record Result(int requests, Duration elapsed, int failures) {
+
+        long throughput() {
+            return requests * 1_000L / Math.max(1, elapsed.toMillis());
+        }
+    }
+}
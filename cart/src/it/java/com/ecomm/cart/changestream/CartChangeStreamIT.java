@@ -0,0 +1,110 @@
+package com.ecomm.cart.changestream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ecomm.cart.model.CartItem;
+import com.ecomm.cart.model.CartItemId;
+import com.ecomm.cart.repository.CartItemRepository;
+import com.ecomm.cart.support.PostgresTestContainer;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@SpringBootTest(properties = {
+    "cart.change-stream.enabled=true",
+    "cart.change-stream.slot-name=cart_item_changes_it",
+    "cart.change-stream.flush-interval=50ms"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CartChangeStreamIT {
+    private static final String CUSTOMER_ID_SAMPLE = "change-stream-customer";
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CartChangeStream cartChangeStream;
+
+    @Autowired
+    private RecordingSubscriber recordingSubscriber;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        PostgresTestContainer.registerProperties(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartItemRepository.deleteAll();
+    }
+
+    @Test
+    void testChangeStream_whenCartItemIsInsertedUpdatedAndDeleted_shouldDeliverEventsInOrder() throws Exception {
+        awaitStreamStarted();
+
+        cartItemRepository.save(CartItem.builder()
+            .customerId(CUSTOMER_ID_SAMPLE)
+            .productId(1L)
+            .quantity(1)
+            .build());
+        cartItemRepository.upsertAddQuantity(CUSTOMER_ID_SAMPLE, 1L, 2);
+        // The upsert bumped the row version, so the saved entity is stale
+        cartItemRepository.deleteById(new CartItemId(CUSTOMER_ID_SAMPLE, 1L));
+
+        List<CartChangeEvent> events = awaitEvents(3);
+
+        assertThat(events)
+            .extracting(CartChangeEvent::type)
+            .containsExactly(CartChangeEvent.Type.INSERT, CartChangeEvent.Type.UPDATE, CartChangeEvent.Type.DELETE);
+        assertThat(events.get(1).quantity()).isEqualTo(3);
+        assertThat(cartChangeStream.getAcknowledgedLsn().asLong()).isGreaterThanOrEqualTo(events.get(2).lsn());
+    }
+
+    private void awaitStreamStarted() throws InterruptedException {
+        // The slot only captures changes made after it exists; an acknowledged change proves the stream is live.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (cartChangeStream.getAcknowledgedLsn().asLong() == 0 && System.nanoTime() < deadline) {
+            cartItemRepository.save(CartItem.builder().customerId(CUSTOMER_ID_SAMPLE).productId(-1L).quantity(1).build());
+            cartItemRepository.deleteAll();
+            Thread.sleep(100);
+        }
+        Thread.sleep(200);
+        recordingSubscriber.events.clear();
+    }
+
+    private List<CartChangeEvent> awaitEvents(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (recordingSubscriber.events.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        return List.copyOf(recordingSubscriber.events);
+    }
+
+    static class RecordingSubscriber implements CartChangeSubscriber {
+        private final List<CartChangeEvent> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onCartChanges(List<CartChangeEvent> batch) {
+            events.addAll(batch);
+        }
+    }
+
+    @TestConfiguration
+    static class SubscriberConfig {
+
+        @Bean
+        RecordingSubscriber recordingSubscriber() {
+            return new RecordingSubscriber();
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package com.ecomm.cart.controller;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
 
 import com.ecomm.cart.model.CartItem;
 import com.ecomm.cart.repository.CartItemRepository;
+import com.ecomm.cart.repository.CartVersionRepository;
+import com.ecomm.cart.service.ProductService;
+import com.ecomm.cart.support.PostgresTestContainer;
 import com.ecomm.cart.viewmodel.CartItemDeleteVm;
 import com.ecomm.cart.viewmodel.CartItemPostVm;
 import com.ecomm.cart.viewmodel.CartItemPutVm;
@@ -16,6 +22,7 @@ import io.restassured.response.ValidatableResponse;
 import io.restassured.specification.RequestSpecification;
 import io.restassured.RestAssured;
 import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.http.ContentType;
 import static io.restassured.RestAssured.given;
 
 import java.util.List;
@@ -27,16 +34,34 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 class CartItemControllerIT { 
 
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        PostgresTestContainer.registerProperties(registry);
+    }
+
+    @LocalServerPort
+    private int port;
+
     @Autowired
     private CartItemRepository cartItemRepository;
 
+    @Autowired
+    private CartVersionRepository cartVersionRepository;
+
+    @MockBean
+    private ProductService productService;
+
     private ProductThumbnailVm existingProduct;
 
     @BeforeEach
@@ -48,11 +73,13 @@ class CartItemControllerIT {
             .slug("product-slug")
             .thumbnailUrl("thumbnail-url")
             .build();
+        when(productService.existsById(anyLong())).thenReturn(true);
     }
 
     @AfterEach
     void tearDown() {
         cartItemRepository.deleteAll();
+        cartVersionRepository.deleteAll();
     }
 
     @Nested
@@ -128,6 +155,87 @@ class CartItemControllerIT {
                 .log().ifValidationFails();
         }
 
+        @Test
+        void testGetCartItems_whenETagIsCurrent_shouldReturnNotModified() {
+            CartItemPostVm cartItemPostVm = new CartItemPostVm(existingProduct.id(), 1);
+            String eTag = performCreateCartItemThenExpectSuccess(cartItemPostVm)
+                .header(HttpHeaders.ETAG, notNullValue())
+                .extract()
+                .header(HttpHeaders.ETAG);
+
+            performGetCartItemsThenExpect(eTag)
+                .statusCode(HttpStatus.NOT_MODIFIED.value())
+                .header(HttpHeaders.ETAG, equalTo(eTag))
+                .log().ifValidationFails();
+        }
+
+        @Test
+        void testGetCartItems_whenCartChangedSinceETag_shouldReturnCartItemsWithNewETag() {
+            CartItemPostVm cartItemPostVm = new CartItemPostVm(existingProduct.id(), 1);
+            String eTag = performCreateCartItemThenExpectSuccess(cartItemPostVm).extract().header(HttpHeaders.ETAG);
+            String newETag = performCreateCartItemThenExpectSuccess(cartItemPostVm).extract().header(HttpHeaders.ETAG);
+
+            performGetCartItemsThenExpect(eTag)
+                .statusCode(HttpStatus.OK.value())
+                .header(HttpHeaders.ETAG, equalTo(newETag))
+                .body("[0].quantity", equalTo(2))
+                .log().ifValidationFails();
+        }
+    }
+
+    @Nested
+    class GetCartItemPageTest {
+
+        @Test
+        void testGetCartItemPage_whenFollowingCursors_shouldReturnEveryLineOnce() {
+            for (long productId = 1; productId <= 5; productId++) {
+                performCreateCartItemThenExpectSuccess(new CartItemPostVm(productId, 1));
+            }
+
+            String cursor = performGetCartItemPageThenExpect(null)
+                .statusCode(HttpStatus.OK.value())
+                .body("items.productId", contains(1, 2))
+                .extract()
+                .path("nextCursor");
+            cursor = performGetCartItemPageThenExpect(cursor)
+                .body("items.productId", contains(3, 4))
+                .extract()
+                .path("nextCursor");
+            performGetCartItemPageThenExpect(cursor)
+                .body("items.productId", contains(5))
+                .body("nextCursor", nullValue())
+                .log().ifValidationFails();
+        }
+
+        private ValidatableResponse performGetCartItemPageThenExpect(String cursor) {
+            RequestSpecification request = givenLoggedInAsAdmin().queryParam("size", 2);
+            if (cursor != null) {
+                request.queryParam("cursor", cursor);
+            }
+            return request
+                .when()
+                .get("/v1/storefront/cart/items/page")
+                .then();
+        }
+    }
+
+    @Nested
+    class StreamCartItemsTest {
+
+        @Test
+        void testStreamCartItems_whenCartItemsExist_shouldStreamThemInProductIdOrder() {
+            performCreateCartItemThenExpectSuccess(new CartItemPostVm(2L, 3));
+            performCreateCartItemThenExpectSuccess(new CartItemPostVm(1L, 1));
+
+            givenLoggedInAsAdmin()
+                .when()
+                .get("/v1/storefront/cart/items/stream")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("productId", contains(1, 2))
+                .body("quantity", contains(1, 3))
+                .log().ifValidationFails();
+        }
     }
 
     @Nested
@@ -210,6 +318,14 @@ class CartItemControllerIT {
             .then();
     }
 
+    private ValidatableResponse performGetCartItemsThenExpect(String ifNoneMatch) {
+        return givenLoggedInAsAdmin()
+            .header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch)
+            .when()
+            .get("/v1/storefront/cart/items")
+            .then();
+    }
+
     private ValidatableResponse performCreateCartItemThenExpectSuccess(CartItemPostVm cartItemPostVm) {
         return givenLoggedInAsAdmin()
             .body(cartItemPostVm)
@@ -220,7 +336,9 @@ class CartItemControllerIT {
     }
 
     protected RequestSpecification givenLoggedInAsAdmin() {
-    return given()
-        .baseUri("http://localhost:8084/");
+        return given()
+            .baseUri("http://localhost")
+            .port(port)
+            .contentType(ContentType.JSON);
     }
 }
\ No newline at end of file
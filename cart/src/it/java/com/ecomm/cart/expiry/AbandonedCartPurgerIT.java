@@ -0,0 +1,187 @@
+package com.ecomm.cart.expiry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ecomm.cart.repository.CartItemRepository;
+import com.ecomm.cart.repository.CartVersionRepository;
+import com.ecomm.cart.service.CartVersionService;
+import com.ecomm.cart.store.CartStore;
+import com.ecomm.cart.support.PostgresTestContainer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@SpringBootTest(properties = {"cart.expiry.chunk-size=2", "cart.expiry.duty-cycle=0.5"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class AbandonedCartPurgerIT {
+    private static final String ABANDONED_CUSTOMER_ID = "abandoned";
+    private static final String ACTIVE_CUSTOMER_ID = "active";
+
+    @Autowired
+    private AbandonedCartPurger abandonedCartPurger;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private CartVersionService cartVersionService;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CartVersionRepository cartVersionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        PostgresTestContainer.registerProperties(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartItemRepository.deleteAll();
+        cartVersionRepository.deleteAll();
+    }
+
+    @Test
+    void testPurgePass_whenCartIsAbandoned_shouldDeleteItAndBumpItsVersion() {
+        writeCart(ABANDONED_CUSTOMER_ID);
+        abandon(ABANDONED_CUSTOMER_ID);
+
+        assertThat(abandonedCartPurger.purgePass()).isEqualTo(1);
+
+        assertThat(cartStore.findAll(ABANDONED_CUSTOMER_ID)).isEmpty();
+        assertThat(cartVersionService.getVersion(ABANDONED_CUSTOMER_ID)).isEqualTo(2);
+        assertThat(touchedAtIsNull(ABANDONED_CUSTOMER_ID)).isTrue();
+    }
+
+    @Test
+    void testPurgePass_whenCartWasWrittenRecently_shouldKeepIt() {
+        writeCart(ACTIVE_CUSTOMER_ID);
+
+        assertThat(abandonedCartPurger.purgePass()).isZero();
+
+        assertThat(cartStore.findAll(ACTIVE_CUSTOMER_ID)).hasSize(2);
+        assertThat(cartVersionService.getVersion(ACTIVE_CUSTOMER_ID)).isEqualTo(1);
+    }
+
+    @Test
+    void testPurgePass_whenSeveralChunks_shouldPurgeEveryAbandonedCart() {
+        for (int i = 0; i < 5; i++) {
+            writeCart(ABANDONED_CUSTOMER_ID + i);
+            abandon(ABANDONED_CUSTOMER_ID + i);
+        }
+        writeCart(ACTIVE_CUSTOMER_ID);
+        Long customers = jdbcTemplate.queryForObject("SELECT count(*) FROM cart_version", Long.class);
+        double examinedBefore = meterRegistry.get("cart.expiry.examined").counter().count();
+
+        assertThat(abandonedCartPurger.purgePass()).isEqualTo(5);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(cartStore.findAll(ABANDONED_CUSTOMER_ID + i)).isEmpty();
+        }
+        assertThat(cartStore.findAll(ACTIVE_CUSTOMER_ID)).hasSize(2);
+        assertThat(meterRegistry.get("cart.expiry.examined").counter().count() - examinedBefore)
+            .isEqualTo(customers.doubleValue());
+    }
+
+    @Test
+    void testPurgePass_whenPurgedCartIsWrittenAgain_shouldTrackItAgain() {
+        writeCart(ABANDONED_CUSTOMER_ID);
+        abandon(ABANDONED_CUSTOMER_ID);
+        abandonedCartPurger.purgePass();
+
+        writeCart(ABANDONED_CUSTOMER_ID);
+
+        assertThat(cartVersionService.getVersion(ABANDONED_CUSTOMER_ID)).isEqualTo(3);
+        assertThat(touchedAtIsNull(ABANDONED_CUSTOMER_ID)).isFalse();
+        assertThat(abandonedCartPurger.purgePass()).isZero();
+    }
+
+    @Test
+    void testPurgePass_whenAbandonedCartVersionIsLocked_shouldSkipItAndPurgeTheOthers() throws SQLException {
+        writeCart(ABANDONED_CUSTOMER_ID);
+        abandon(ABANDONED_CUSTOMER_ID);
+        writeCart(ABANDONED_CUSTOMER_ID + 1);
+        abandon(ABANDONED_CUSTOMER_ID + 1);
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                // A write about to bump the version holds this row until it commits
+                statement.execute(
+                    "SELECT 1 FROM cart_version WHERE customer_id = '" + ABANDONED_CUSTOMER_ID + "' FOR UPDATE");
+
+                assertThat(abandonedCartPurger.purgePass()).isEqualTo(1);
+            } finally {
+                connection.rollback();
+            }
+        }
+
+        assertThat(cartStore.findAll(ABANDONED_CUSTOMER_ID)).hasSize(2);
+        assertThat(cartStore.findAll(ABANDONED_CUSTOMER_ID + 1)).isEmpty();
+    }
+
+    @Test
+    void testPurgePass_whenAbandonedCartLineIsLocked_shouldGiveUpTheChunkWithinTheLockTimeout() throws SQLException {
+        writeCart(ABANDONED_CUSTOMER_ID);
+        abandon(ABANDONED_CUSTOMER_ID);
+        long lockTimeoutsBefore =
+            meterRegistry.get("cart.expiry.chunks").tag("outcome", "lock_timeout").timer().count();
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                // A write in progress has updated a line but not reached the version yet
+                statement.execute("UPDATE cart_item SET quantity = quantity + 1 WHERE customer_id = '"
+                    + ABANDONED_CUSTOMER_ID + "' AND product_id = 1");
+
+                assertThat(abandonedCartPurger.purgePass()).isZero();
+            } finally {
+                connection.rollback();
+            }
+        }
+
+        assertThat(cartStore.findAll(ABANDONED_CUSTOMER_ID)).hasSize(2);
+        assertThat(cartVersionService.getVersion(ABANDONED_CUSTOMER_ID)).isEqualTo(1);
+        assertThat(meterRegistry.get("cart.expiry.chunks").tag("outcome", "lock_timeout").timer().count())
+            .isEqualTo(lockTimeoutsBefore + 1);
+    }
+
+    private void writeCart(String customerId) {
+        cartStore.addQuantities(customerId, Map.of(1L, 1, 2L, 3));
+        cartVersionService.increment(customerId);
+    }
+
+    private void abandon(String customerId) {
+        jdbcTemplate.update(
+            "UPDATE cart_version SET touched_at = now() - interval '31 days' WHERE customer_id = ?", customerId);
+    }
+
+    private boolean touchedAtIsNull(String customerId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT touched_at IS NULL FROM cart_version WHERE customer_id = ?", Boolean.class, customerId));
+    }
+}
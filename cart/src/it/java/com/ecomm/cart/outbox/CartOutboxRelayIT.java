@@ -0,0 +1,210 @@
+package com.ecomm.cart.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.ecomm.cart.repository.CartVersionRepository;
+import com.ecomm.cart.service.CartVersionService;
+import com.ecomm.cart.support.InMemoryCartEventSink;
+import com.ecomm.cart.support.PostgresTestContainer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionOperations;
+
+@SpringBootTest(properties = {
+    "cart.outbox.enabled=true", "cart.outbox.relay-enabled=false", "cart.outbox.batch-size=3"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(InMemoryCartEventSink.class)
+class CartOutboxRelayIT {
+    private static final String CUSTOMER_ID_SAMPLE = "customer";
+    private static final String OTHER_CUSTOMER_ID_SAMPLE = "other-customer";
+
+    @Autowired
+    private CartOutboxRelay cartOutboxRelay;
+
+    @Autowired
+    private CartVersionService cartVersionService;
+
+    @Autowired
+    private CartVersionRepository cartVersionRepository;
+
+    @Autowired
+    private InMemoryCartEventSink cartEventSink;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        PostgresTestContainer.registerProperties(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM cart_outbox");
+        cartVersionRepository.deleteAll();
+        cartEventSink.clear();
+    }
+
+    @Test
+    void testRelayBatch_shouldPublishTheLatestEventOfEachCustomerInWriteOrder() {
+        double compactedBefore = meterRegistry.get("cart.outbox.events").tag("outcome", "compacted").counter().count();
+        cartVersionService.increment(CUSTOMER_ID_SAMPLE);
+        cartVersionService.increment(OTHER_CUSTOMER_ID_SAMPLE);
+        cartVersionService.increment(CUSTOMER_ID_SAMPLE);
+
+        assertThat(cartOutboxRelay.relayBatch()).isEqualTo(3);
+
+        assertThat(cartEventSink.getBatches()).singleElement().satisfies(batch -> assertThat(batch)
+            .extracting(CartChangedEvent::customerId, CartChangedEvent::version)
+            .containsExactly(tuple(OTHER_CUSTOMER_ID_SAMPLE, 1L), tuple(CUSTOMER_ID_SAMPLE, 2L)));
+        assertThat(meterRegistry.get("cart.outbox.events").tag("outcome", "compacted").counter().count())
+            .isEqualTo(compactedBefore + 1);
+        assertThat(cartOutboxRelay.relayBatch()).isZero();
+    }
+
+    @Test
+    void testRelayBatch_whenMoreEventsThanBatchSize_shouldDrainThemOverSeveralBatches() {
+        for (int i = 0; i < 4; i++) {
+            cartVersionService.increment(CUSTOMER_ID_SAMPLE + i);
+        }
+
+        assertThat(cartOutboxRelay.relayBatch()).isEqualTo(3);
+        assertThat(cartOutboxRelay.relayBatch()).isEqualTo(1);
+
+        assertThat(cartEventSink.getBatches()).flatExtracting(batch -> batch)
+            .extracting(CartChangedEvent::customerId)
+            .containsExactly(CUSTOMER_ID_SAMPLE + 0, CUSTOMER_ID_SAMPLE + 1, CUSTOMER_ID_SAMPLE + 2,
+                CUSTOMER_ID_SAMPLE + 3);
+    }
+
+    @Test
+    void testIncrement_whenWriteRollsBack_shouldLeaveNoEvent() {
+        transactionOperations.executeWithoutResult(status -> {
+            cartVersionService.increment(CUSTOMER_ID_SAMPLE);
+            status.setRollbackOnly();
+        });
+
+        assertThat(cartOutboxRelay.relayBatch()).isZero();
+        assertThat(cartEventSink.getBatches()).isEmpty();
+    }
+
+    @Test
+    void testRelayBatch_whenSinkFails_shouldKeepTheEventsForTheNextBatch() {
+        cartVersionService.increment(CUSTOMER_ID_SAMPLE);
+        cartEventSink.failNext(new IllegalStateException("broker unavailable"));
+
+        assertThatThrownBy(() -> cartOutboxRelay.relayBatch()).isInstanceOf(IllegalStateException.class);
+        assertThat(cartOutboxRelay.relayBatch()).isEqualTo(1);
+
+        assertThat(cartEventSink.getBatches()).singleElement().satisfies(batch -> assertThat(batch)
+            .extracting(CartChangedEvent::customerId).containsExactly(CUSTOMER_ID_SAMPLE));
+    }
+
+    @Test
+    void testRelayBatch_whenAnotherRelayHoldsACustomer_shouldSkipOnlyThatCustomer() throws SQLException {
+        cartVersionService.increment(CUSTOMER_ID_SAMPLE);
+        cartVersionService.increment(OTHER_CUSTOMER_ID_SAMPLE);
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            // Stands for a relay on another node in the middle of publishing this customer's events
+            try (PreparedStatement statement =
+                     connection.prepareStatement("SELECT pg_advisory_xact_lock(?, hashtext(?))")) {
+                statement.setInt(1, CartOutboxRelay.ADVISORY_LOCK_CLASS);
+                statement.setString(2, CUSTOMER_ID_SAMPLE);
+                statement.execute();
+
+                assertThat(cartOutboxRelay.relayBatch()).isEqualTo(1);
+            } finally {
+                connection.rollback();
+            }
+        }
+        assertThat(cartOutboxRelay.relayBatch()).isEqualTo(1);
+
+        assertThat(cartEventSink.getBatches())
+            .extracting(batch -> batch.getFirst().customerId())
+            .containsExactly(OTHER_CUSTOMER_ID_SAMPLE, CUSTOMER_ID_SAMPLE);
+    }
+
+    @Test
+    void testRelayBatch_whenAnotherRelayHoldsABatchOfALargeBacklog_shouldClaimTheNextCustomers() throws SQLException {
+        jdbcTemplate.update("""
+            INSERT INTO cart_outbox (customer_id, version)
+            SELECT ? || n, 1 FROM generate_series(0, 999) AS n
+            """, CUSTOMER_ID_SAMPLE);
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            // Stands for a relay on another node in the middle of publishing its batch
+            try (PreparedStatement statement = connection.prepareStatement(CartOutboxRelay.CLAIM_BATCH)) {
+                statement.setInt(1, 2000);
+                statement.setInt(2, CartOutboxRelay.ADVISORY_LOCK_CLASS);
+                statement.setInt(3, 3);
+                statement.setInt(4, 3);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    int claimed = 0;
+                    while (resultSet.next()) {
+                        claimed++;
+                    }
+                    assertThat(claimed).isEqualTo(3);
+                }
+                // Only the customers of the batch are locked, not every customer of the backlog
+                assertThat(advisoryLocksHeldBy(connection)).isEqualTo(3);
+
+                assertThat(cartOutboxRelay.relayBatch()).isEqualTo(3);
+            } finally {
+                connection.rollback();
+            }
+        }
+
+        assertThat(cartEventSink.getBatches()).singleElement().satisfies(batch -> assertThat(batch)
+            .extracting(CartChangedEvent::customerId)
+            .containsExactly(CUSTOMER_ID_SAMPLE + 3, CUSTOMER_ID_SAMPLE + 4, CUSTOMER_ID_SAMPLE + 5));
+    }
+
+    @Test
+    void testRelayBatch_shouldRecordTheLagOfEveryEvent() {
+        long lagsBefore = meterRegistry.get("cart.outbox.lag").timer().count();
+        cartVersionService.increment(CUSTOMER_ID_SAMPLE);
+        cartVersionService.increment(CUSTOMER_ID_SAMPLE);
+
+        cartOutboxRelay.relayBatch();
+
+        assertThat(meterRegistry.get("cart.outbox.lag").timer().count()).isEqualTo(lagsBefore + 2);
+    }
+
+    private static long advisoryLocksHeldBy(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                 "SELECT count(*) FROM pg_locks WHERE locktype = 'advisory' AND pid = pg_backend_pid()");
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.ecomm.cart.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ecomm.cart.support.PostgresTestContainer;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Checks the Liquibase-managed {@code cart_item} layout and that the statements of {@link CartItemRepository} only
+ * touch the partition of the customer they filter on.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CartItemPartitioningIT {
+    private static final String CUSTOMER_ID_SAMPLE = "customer";
+    private static final int PARTITION_COUNT = 16;
+    private static final Pattern PARTITION = Pattern.compile("\\bcart_item_p\\d+\\b");
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        PostgresTestContainer.registerProperties(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartItemRepository.deleteAll();
+    }
+
+    @Nested
+    class SchemaTest {
+
+        @Test
+        void testCartItem_whenMigrated_shouldBeHashPartitionedByCustomerId() {
+            String partitionKey = jdbcTemplate.queryForObject(
+                "SELECT pg_get_partkeydef('cart_item'::regclass)", String.class);
+
+            assertThat(partitionKey).isEqualTo("HASH (customer_id)");
+        }
+
+        @Test
+        void testPartitions_whenMigrated_shouldAllLeaveRoomForHotUpdates() {
+            List<String> reloptions = jdbcTemplate.queryForList("""
+                SELECT array_to_string(c.reloptions, ',')
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'cart_item'::regclass
+                """, String.class);
+
+            assertThat(reloptions).hasSize(PARTITION_COUNT).containsOnly("fillfactor=80");
+        }
+
+        @Test
+        void testProductIdIndex_whenMigrated_shouldCoverCustomerIdOnEveryPartition() {
+            List<String> indexDefinitions = jdbcTemplate.queryForList("""
+                SELECT indexdef
+                FROM pg_indexes
+                WHERE tablename LIKE 'cart_item\\_p%' AND indexdef LIKE '%(product_id) INCLUDE (customer_id)'
+                """, String.class);
+
+            assertThat(indexDefinitions).hasSize(PARTITION_COUNT);
+        }
+
+        @Test
+        void testUpsert_whenSeveralLines_shouldStoreThemInOnePartition() {
+            cartItemRepository.upsertAddQuantity(CUSTOMER_ID_SAMPLE, 1L, 1);
+            cartItemRepository.upsertAddQuantity(CUSTOMER_ID_SAMPLE, 2L, 1);
+            cartItemRepository.upsertSetQuantity(CUSTOMER_ID_SAMPLE, 3L, 1);
+
+            Integer partitions = jdbcTemplate.queryForObject(
+                "SELECT count(DISTINCT tableoid) FROM cart_item WHERE customer_id = ?", Integer.class,
+                CUSTOMER_ID_SAMPLE);
+
+            assertThat(partitions).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    class PartitionPruningTest {
+
+        @Test
+        void testFindByCustomerId_shouldScanOnePartition() {
+            List<String> plan = explain(
+                "SELECT * FROM cart_item WHERE customer_id = ?", CUSTOMER_ID_SAMPLE);
+
+            assertThat(scannedPartitions(plan)).hasSize(1);
+        }
+
+        @Test
+        void testFindPageByCustomerId_shouldScanOnePartition() {
+            List<String> plan = explain("""
+                SELECT customer_id, product_id, quantity FROM cart_item
+                WHERE customer_id = ? AND product_id >= ?
+                ORDER BY product_id
+                LIMIT ?
+                """, CUSTOMER_ID_SAMPLE, Long.MIN_VALUE, 51);
+
+            assertThat(scannedPartitions(plan)).hasSize(1);
+        }
+
+        @Test
+        void testFindByCustomerIdAndProductIdIn_shouldScanOnePartition() {
+            List<String> plan = explain(
+                "SELECT * FROM cart_item WHERE customer_id = ? AND product_id = ANY(?)",
+                CUSTOMER_ID_SAMPLE, new Long[] {1L, 2L, 3L});
+
+            assertThat(scannedPartitions(plan)).hasSize(1);
+        }
+
+        @Test
+        void testDecrementOrDelete_shouldScanOnePartition() {
+            List<String> plan = explain("""
+                WITH request AS (
+                    SELECT *
+                    FROM unnest(CAST(? AS bigint[]), CAST(? AS int[])) AS r(product_id, quantity)
+                ),
+                deleted AS (
+                    DELETE FROM cart_item c
+                    USING request r
+                    WHERE c.customer_id = ? AND c.product_id = r.product_id AND c.quantity <= r.quantity
+                )
+                UPDATE cart_item c
+                SET quantity = c.quantity - r.quantity, version = c.version + 1
+                FROM request r
+                WHERE c.customer_id = ? AND c.product_id = r.product_id AND c.quantity > r.quantity
+                RETURNING c.*
+                """, new Long[] {1L, 2L}, new Integer[] {1, 1}, CUSTOMER_ID_SAMPLE, CUSTOMER_ID_SAMPLE);
+
+            assertThat(scannedPartitions(plan)).hasSize(1);
+        }
+
+        @Test
+        void testGenericPlan_whenCustomerIdIsAParameter_shouldPruneAtExecutorStartup() {
+            // A statement the driver has server-prepared may be run with a generic plan, where the customer is only
+            // known at execution: pruning then happens at executor startup and shows as removed subplans
+            List<String> plan = jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("PREPARE cart_lines(varchar) AS SELECT * FROM cart_item WHERE customer_id = $1");
+                    statement.execute("SET plan_cache_mode = force_generic_plan");
+                    String explainSql = "EXPLAIN (COSTS OFF) EXECUTE cart_lines('" + CUSTOMER_ID_SAMPLE + "')";
+                    try (ResultSet resultSet = statement.executeQuery(explainSql)) {
+                        List<String> lines = new ArrayList<>();
+                        while (resultSet.next()) {
+                            lines.add(resultSet.getString(1));
+                        }
+                        return lines;
+                    } finally {
+                        statement.execute("RESET plan_cache_mode");
+                        statement.execute("DEALLOCATE cart_lines");
+                    }
+                }
+            });
+
+            assertThat(plan).anyMatch(line -> line.contains("Subplans Removed: " + (PARTITION_COUNT - 1)));
+            assertThat(scannedPartitions(plan)).hasSize(1);
+        }
+    }
+
+    private List<String> explain(String sql, Object... args) {
+        return jdbcTemplate.queryForList("EXPLAIN (COSTS OFF) " + sql, String.class, args);
+    }
+
+    private static List<String> scannedPartitions(List<String> plan) {
+        return plan.stream()
+            .flatMap(line -> PARTITION.matcher(line).results())
+            .map(MatchResult::group)
+            .distinct()
+            .toList();
+    }
+}
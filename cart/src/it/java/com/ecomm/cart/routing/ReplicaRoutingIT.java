@@ -0,0 +1,145 @@
+package com.ecomm.cart.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ecomm.cart.cache.CartInvalidationBus;
+import com.ecomm.cart.support.PostgresTestContainer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * The test container stands in for both the primary and its only replica. Connections are told apart by the
+ * application name of the replica pool, and the lag monitor only samples on demand once the context has started.
+ */
+@SpringBootTest(properties = {
+    "cart.datasource.replica.enabled=true",
+    "cart.datasource.replica.read-your-writes-window=1s",
+    "cart.datasource.replica.lag-poll-interval=1h"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ReplicaRoutingIT {
+    private static final String REPLICA = "cart-replica-0";
+
+    @Autowired
+    private ReplicaReads replicaReads;
+
+    @Autowired
+    private CartInvalidationBus cartInvalidationBus;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        PostgresTestContainer.registerProperties(registry);
+        registry.add("cart.datasource.replica.urls[0]", PostgresTestContainer.getContainer()::getJdbcUrl);
+    }
+
+    @Test
+    void testRead_whenCustomerDidNotWrite_shouldUseTheReplica() {
+        assertThat(replicaReads.read("reader", this::applicationName)).isEqualTo(REPLICA);
+    }
+
+    @Test
+    void testRead_whenTransactionIsReadWrite_shouldUseThePrimary() {
+        String inTransaction = transactionOperations.execute(status -> applicationName());
+        assertThat(inTransaction).isNotEqualTo(REPLICA);
+        assertThat(applicationName()).isNotEqualTo(REPLICA);
+    }
+
+    @Test
+    void testRead_shouldRunInAReadOnlyTransaction() {
+        assertThat(replicaReads.read("reader", () ->
+            jdbcTemplate.queryForObject("SELECT current_setting('transaction_read_only')", String.class)))
+            .isEqualTo("on");
+    }
+
+    @Test
+    void testRead_whenCustomerJustWrote_shouldUseThePrimaryUntilTheReplicaCatchesUp() {
+        double pinnedBefore = routingCount("primary", "pinned");
+        write("writer");
+
+        assertThat(replicaReads.read("writer", this::applicationName)).isNotEqualTo(REPLICA);
+        assertThat(replicaReads.read("bystander", this::applicationName)).isEqualTo(REPLICA);
+        assertThat(routingCount("primary", "pinned")).isEqualTo(pinnedBefore + 1);
+
+        replicaLagMonitor.poll();
+
+        assertThat(replicaReads.read("writer", this::applicationName)).isEqualTo(REPLICA);
+    }
+
+    @Test
+    void testRead_whenReadYourWritesWindowPassed_shouldUseTheReplicaAgain() throws InterruptedException {
+        write("late-reader");
+        assertThat(replicaReads.read("late-reader", this::applicationName)).isNotEqualTo(REPLICA);
+
+        Thread.sleep(1_100);
+
+        assertThat(replicaReads.read("late-reader", this::applicationName)).isEqualTo(REPLICA);
+    }
+
+    @Test
+    void testRead_whenWriteRolledBack_shouldOnlyPinUntilTheReplicaCatchesUp() {
+        transactionOperations.executeWithoutResult(status -> {
+            cartInvalidationBus.publish("rolled-back");
+            status.setRollbackOnly();
+        });
+        replicaLagMonitor.poll();
+
+        assertThat(replicaReads.read("rolled-back", this::applicationName)).isEqualTo(REPLICA);
+    }
+
+    @Test
+    void testReadFromPrimary_whenCustomerDidNotWrite_shouldStillUseThePrimary() {
+        double fromPrimaryBefore = routingCount("primary", "from_primary");
+
+        assertThat(replicaReads.readFromPrimary("reader", this::applicationName)).isNotEqualTo(REPLICA);
+        assertThat(routingCount("primary", "from_primary")).isEqualTo(fromPrimaryBefore + 1);
+        assertThat(replicaReads.read("reader", this::applicationName)).isEqualTo(REPLICA);
+    }
+
+    @Test
+    void testRead_whenNested_shouldKeepTheOuterTransactionAndCustomer() {
+        Map<String, String> applicationNames = replicaReads.read("reader", () -> Map.of(
+            "outer", applicationName(),
+            "inner", replicaReads.read("other", this::applicationName)));
+
+        assertThat(applicationNames).containsEntry("outer", REPLICA).containsEntry("inner", REPLICA);
+    }
+
+    private void write(String customerId) {
+        transactionOperations.executeWithoutResult(status -> {
+            jdbcTemplate.update(
+                "INSERT INTO cart_version (customer_id, version, touched_at) VALUES (?, 1, now()) "
+                    + "ON CONFLICT (customer_id) DO UPDATE SET version = cart_version.version + 1", customerId);
+            cartInvalidationBus.publish(customerId);
+        });
+    }
+
+    private String applicationName() {
+        return jdbcTemplate.queryForObject("SELECT current_setting('application_name')", String.class);
+    }
+
+    private double routingCount(String target, String reason) {
+        return meterRegistry.get("cart.datasource.routing").tag("target", target).tag("reason", reason)
+            .counter().count();
+    }
+}
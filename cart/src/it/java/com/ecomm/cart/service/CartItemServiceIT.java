@@ -0,0 +1,206 @@
+package com.ecomm.cart.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+import com.ecomm.cart.cache.CartItemCache;
+import com.ecomm.cart.model.CartItem;
+import com.ecomm.cart.repository.CartItemRepository;
+import com.ecomm.cart.support.PostgresTestContainer;
+import com.ecomm.cart.viewmodel.CartItemDeleteVm;
+import com.ecomm.cart.viewmodel.CartItemGetVm;
+import com.ecomm.cart.viewmodel.CartItemPostVm;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+    "spring.jpa.properties.hibernate.order_inserts=true",
+    "spring.jpa.properties.hibernate.order_updates=true",
+    "spring.datasource.hikari.data-source-properties.reWriteBatchedInserts=true",
+    "cart.cache.invalidation.enabled=true",
+    "cart.cache.invalidation.poll-timeout=100ms"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CartItemServiceIT {
+    private static final String CURRENT_USER_ID_SAMPLE = "123";
+    private static final Long PRODUCT_ID_SAMPLE = 1L;
+
+    @Autowired
+    private CartItemService cartItemService;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CartItemCache cartItemCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private ProductService productService;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        PostgresTestContainer.registerProperties(registry);
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(productService.existsById(anyLong())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartItemRepository.deleteAll();
+        cartItemCache.evictAll();
+    }
+
+    @Nested
+    class AddCartItemTest {
+
+        @Test
+        void testAddCartItem_whenAddedConcurrently_shouldSumAllQuantities() throws Exception {
+            int concurrentAdds = 64;
+            ExecutorService executor = Executors.newFixedThreadPool(16);
+            CountDownLatch startSignal = new CountDownLatch(1);
+            List<Future<CartItemGetVm>> results = new ArrayList<>();
+
+            try {
+                for (int i = 0; i < concurrentAdds; i++) {
+                    results.add(executor.submit(() -> {
+                        startSignal.await();
+                        return cartItemService.addCartItem(new CartItemPostVm(PRODUCT_ID_SAMPLE, 1));
+                    }));
+                }
+                startSignal.countDown();
+                for (Future<CartItemGetVm> result : results) {
+                    result.get(30, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            assertThat(cartItemRepository.findByCustomerIdAndProductId(CURRENT_USER_ID_SAMPLE, PRODUCT_ID_SAMPLE))
+                .get()
+                .extracting(CartItem::getQuantity)
+                .isEqualTo(concurrentAdds);
+        }
+    }
+
+    @Nested
+    class AddCartItemsTest {
+
+        @Test
+        void testAddCartItems_whenBundleIsAdded_shouldUseAHandfulOfStatements() {
+            int bundleSize = 50;
+            cartItemRepository.saveAll(List.of(
+                CartItem.builder().customerId(CURRENT_USER_ID_SAMPLE).productId(1L).quantity(1).build(),
+                CartItem.builder().customerId(CURRENT_USER_ID_SAMPLE).productId(2L).quantity(1).build()));
+            List<CartItemPostVm> cartItemPostVms = new ArrayList<>();
+            for (long productId = 1; productId <= bundleSize; productId++) {
+                cartItemPostVms.add(new CartItemPostVm(productId, 1));
+            }
+
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+
+            List<CartItemGetVm> cartItemGetVms = cartItemService.addCartItems(cartItemPostVms);
+
+            // One SELECT for the existing lines, one INSERT batch, one UPDATE batch and the cart version bump.
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+            assertThat(cartItemGetVms).hasSize(bundleSize);
+            assertThat(cartItemRepository.findByCustomerId(CURRENT_USER_ID_SAMPLE))
+                .hasSize(bundleSize)
+                .filteredOn(cartItem -> cartItem.getProductId() <= 2)
+                .allSatisfy(cartItem -> assertThat(cartItem.getQuantity()).isEqualTo(2));
+        }
+    }
+
+    @Nested
+    class CacheInvalidationTest {
+
+        @Test
+        void testGetCartItems_whenAnotherNodeNotifiesChange_shouldEvictLocalSnapshot() throws Exception {
+            cartItemService.getCartItems();
+            assertThat(cartItemCache.stats().missCount()).isPositive();
+            cartItemRepository.save(CartItem.builder()
+                .customerId(CURRENT_USER_ID_SAMPLE)
+                .productId(PRODUCT_ID_SAMPLE)
+                .quantity(1)
+                .build());
+
+            // Simulates a mutation committed by another replica.
+            jdbcTemplate.execute("NOTIFY cart_changed, '" + CURRENT_USER_ID_SAMPLE + "'");
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (cartItemService.getCartItems().isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            assertThat(cartItemService.getCartItems()).hasSize(1);
+        }
+    }
+
+    @Nested
+    class DeleteOrAdjustCartItemTest {
+
+        @Test
+        void testDeleteOrAdjustCartItem_whenWholeCartIsRemoved_shouldUseSingleStatement() {
+            int cartSize = 40;
+            List<CartItem> cartItems = new ArrayList<>();
+            List<CartItemDeleteVm> cartItemDeleteVms = new ArrayList<>();
+            for (long productId = 1; productId <= cartSize; productId++) {
+                cartItems.add(CartItem.builder()
+                    .customerId(CURRENT_USER_ID_SAMPLE)
+                    .productId(productId)
+                    .quantity(2)
+                    .build());
+                // Odd lines are removed entirely, even lines are decremented by one.
+                cartItemDeleteVms.add(new CartItemDeleteVm(productId, productId % 2 == 0 ? 1 : 2));
+            }
+            cartItemRepository.saveAll(cartItems);
+
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+
+            List<CartItemGetVm> adjustedCartItems = cartItemService.deleteOrAdjustCartItem(cartItemDeleteVms);
+
+            // One set-based statement for all lines and the cart version bump.
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+            assertThat(adjustedCartItems)
+                .hasSize(cartSize / 2)
+                .allSatisfy(cartItem -> {
+                    assertThat(cartItem.productId() % 2).isZero();
+                    assertThat(cartItem.quantity()).isEqualTo(1);
+                });
+            assertThat(cartItemRepository.findByCustomerId(CURRENT_USER_ID_SAMPLE)).hasSize(cartSize / 2);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.ecomm.cart.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.ecomm.cart.config.CartStoreProperties;
+import com.ecomm.cart.repository.CartDocumentRepository;
+import com.ecomm.cart.repository.CartItemRepository;
+import com.ecomm.cart.support.PostgresTestContainer;
+import com.ecomm.cart.viewmodel.CartItemGetVm;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@SpringBootTest(properties = "cart.store.layout=document")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class DocumentCartStoreIT {
+    private static final String CUSTOMER_ID_SAMPLE = "customer";
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private CartDocumentRepository cartDocumentRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CartLayoutMigration cartLayoutMigration;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        PostgresTestContainer.registerProperties(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartDocumentRepository.deleteAll();
+        cartItemRepository.deleteAll();
+    }
+
+    @Test
+    void testCartStore_whenLayoutIsDocument_shouldBeDocumentCartStore() {
+        assertThat(cartStore).isInstanceOf(DocumentCartStore.class);
+    }
+
+    @Nested
+    class WriteTest {
+
+        @Test
+        void testAddQuantity_whenLineExists_shouldSumQuantities() {
+            cartStore.addQuantity(CUSTOMER_ID_SAMPLE, 1L, 2);
+
+            CartItemGetVm cartItem = cartStore.addQuantity(CUSTOMER_ID_SAMPLE, 1L, 3);
+
+            assertThat(cartItem.quantity()).isEqualTo(5);
+            assertThat(cartStore.findAll(CUSTOMER_ID_SAMPLE)).containsExactly(cartItem);
+        }
+
+        @Test
+        void testAddQuantities_whenSomeLinesExist_shouldAddToThemAndCreateTheOthers() {
+            cartStore.addQuantity(CUSTOMER_ID_SAMPLE, 2L, 1);
+            Map<Long, Integer> quantityByProductId = new LinkedHashMap<>();
+            quantityByProductId.put(3L, 4);
+            quantityByProductId.put(2L, 2);
+
+            List<CartItemGetVm> cartItems = cartStore.addQuantities(CUSTOMER_ID_SAMPLE, quantityByProductId);
+
+            assertThat(cartItems).extracting(CartItemGetVm::productId, CartItemGetVm::quantity)
+                .containsExactly(tuple(3L, 4), tuple(2L, 3));
+        }
+
+        @Test
+        void testSetQuantity_whenLineExists_shouldOverwriteIt() {
+            cartStore.addQuantity(CUSTOMER_ID_SAMPLE, 1L, 2);
+
+            assertThat(cartStore.setQuantity(CUSTOMER_ID_SAMPLE, 1L, 7).quantity()).isEqualTo(7);
+        }
+
+        @Test
+        void testRemoveQuantities_shouldDecrementOrDropLinesAndReturnTheKeptOnes() {
+            cartStore.addQuantities(CUSTOMER_ID_SAMPLE, Map.of(1L, 2, 2L, 5, 3L, 1));
+
+            List<CartItemGetVm> adjusted = cartStore.removeQuantities(CUSTOMER_ID_SAMPLE, Map.of(1L, 2, 2L, 1));
+
+            assertThat(adjusted).extracting(CartItemGetVm::productId).containsExactly(2L);
+            assertThat(cartStore.findAll(CUSTOMER_ID_SAMPLE))
+                .extracting(CartItemGetVm::productId, CartItemGetVm::quantity)
+                .containsExactly(tuple(2L, 4), tuple(3L, 1));
+        }
+
+        @Test
+        void testRemoveQuantities_whenCartDoesNotExist_shouldReturnNothing() {
+            assertThat(cartStore.removeQuantities(CUSTOMER_ID_SAMPLE, Map.of(1L, 1))).isEmpty();
+        }
+
+        @Test
+        void testDelete_shouldDropOnlyThatLine() {
+            cartStore.addQuantities(CUSTOMER_ID_SAMPLE, Map.of(1L, 1, 2L, 1));
+
+            cartStore.delete(CUSTOMER_ID_SAMPLE, 1L);
+
+            assertThat(cartStore.findAll(CUSTOMER_ID_SAMPLE)).extracting(CartItemGetVm::productId).containsExactly(2L);
+        }
+    }
+
+    @Nested
+    class ReadTest {
+
+        @Test
+        void testFindPage_shouldReturnLinesFromProductIdInOrder() {
+            cartStore.addQuantities(CUSTOMER_ID_SAMPLE, Map.of(10L, 1, 2L, 1, 7L, 1, 30L, 1));
+
+            assertThat(cartStore.findPage(CUSTOMER_ID_SAMPLE, 5L, Limit.of(2)))
+                .extracting(CartItemGetVm::productId)
+                .containsExactly(7L, 10L);
+        }
+
+        @Test
+        void testFindAll_whenCartDoesNotExist_shouldReturnNothing() {
+            assertThat(cartStore.findAll(CUSTOMER_ID_SAMPLE)).isEmpty();
+        }
+    }
+
+    @Nested
+    class MigrationTest {
+
+        @Test
+        void testMigrate_whenRoundTripped_shouldKeepEveryLine() {
+            cartStore.addQuantities("customer-1", Map.of(1L, 1, 2L, 2));
+            cartStore.addQuantities("customer-2", Map.of(3L, 3));
+
+            assertThat(cartLayoutMigration.migrate(CartStoreProperties.Layout.ROW)).isEqualTo(2);
+            assertThat(cartItemRepository.findByCustomerId("customer-1")).hasSize(2);
+            assertThat(cartItemRepository.findByCustomerId("customer-2")).singleElement()
+                .satisfies(cartItem -> assertThat(cartItem.getQuantity()).isEqualTo(3));
+
+            cartDocumentRepository.deleteAll();
+            assertThat(cartLayoutMigration.migrate(CartStoreProperties.Layout.DOCUMENT)).isEqualTo(2);
+            assertThat(cartStore.findAll("customer-1"))
+                .extracting(CartItemGetVm::productId, CartItemGetVm::quantity)
+                .containsExactly(tuple(1L, 1), tuple(2L, 2));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecomm.cart.support;
+
+import com.ecomm.cart.outbox.CartChangedEvent;
+import com.ecomm.cart.outbox.CartEventSink;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Records the batches relayed from the outbox. Import it into a test context to replace the configured sink.
+ */
+@Primary
+public class InMemoryCartEventSink implements CartEventSink {
+    private final List<List<CartChangedEvent>> batches = new CopyOnWriteArrayList<>();
+    private final AtomicReference<RuntimeException> nextFailure = new AtomicReference<>();
+
+    @Override
+    public void publish(List<CartChangedEvent> events) {
+        RuntimeException failure = nextFailure.getAndSet(null);
+        if (failure != null) {
+            throw failure;
+        }
+        batches.add(List.copyOf(events));
+    }
+
+    public List<List<CartChangedEvent>> getBatches() {
+        return List.copyOf(batches);
+    }
+
+    /**
+     * Makes the next {@link #publish} call throw {@code failure} instead of recording the batch.
+     */
+    public void failNext(RuntimeException failure) {
+        nextFailure.set(failure);
+    }
+
+    public void clear() {
+        batches.clear();
+        nextFailure.set(null);
+    }
+}
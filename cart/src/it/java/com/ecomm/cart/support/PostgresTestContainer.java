@@ -0,0 +1,34 @@
+package com.ecomm.cart.support;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Single Postgres container shared by the integration tests that rely on Postgres-only SQL (upserts, arrays, CTEs).
+ * Uses the same image as docker-compose so logical decoding plugins are available too.
+ */
+public final class PostgresTestContainer {
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
+        DockerImageName.parse("debezium/postgres:16-alpine").asCompatibleSubstituteFor("postgres"))
+        .withDatabaseName("cart");
+
+    static {
+        POSTGRES.start();
+    }
+
+    private PostgresTestContainer() {
+    }
+
+    public static PostgreSQLContainer<?> getContainer() {
+        return POSTGRES;
+    }
+
+    public static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", POSTGRES::getDriverClassName);
+    }
+}
@@ -0,0 +1,48 @@
+package com.ecomm.cart.cache;
+
+import com.ecomm.cart.config.CartInvalidationProperties;
+import com.ecomm.cart.routing.ReadYourWrites;
+
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entry point for cart mutations to announce that a customer's cart changed.
+ */
+@Component
+@RequiredArgsConstructor
+public class CartInvalidationBus {
+    private final CartItemCache cartItemCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final CartInvalidationProperties properties;
+    private final ReadYourWrites readYourWrites;
+
+    /**
+     * Evicts the local snapshot and queues a NOTIFY on the current transaction. Postgres only delivers it to the
+     * other nodes once the transaction commits, and drops it on rollback. The customer's reads stay on the primary
+     * until the replicas have the change.
+     */
+    public void publish(String customerId) {
+        cartItemCache.evict(customerId);
+        readYourWrites.pin(customerId);
+        if (properties.enabled()) {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", resultSet -> null, properties.channel(), customerId);
+        }
+    }
+
+    /**
+     * Same as {@link #publish(String)} for several carts, with a single statement.
+     */
+    public void publishAll(List<String> customerIds) {
+        customerIds.forEach(customerId -> {
+            cartItemCache.evict(customerId);
+            readYourWrites.pin(customerId);
+        });
+        if (properties.enabled()) {
+            jdbcTemplate.query("SELECT pg_notify(?, customer_id) FROM unnest(CAST(? AS varchar[])) AS customer_id",
+                resultSet -> null, properties.channel(), customerIds.toArray(String[]::new));
+        }
+    }
+}
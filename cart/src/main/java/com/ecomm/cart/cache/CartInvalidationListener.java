@@ -0,0 +1,124 @@
+package com.ecomm.cart.cache;
+
+import com.ecomm.cart.config.CartInvalidationProperties;
+import com.ecomm.cart.routing.ReadYourWrites;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Properties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps a dedicated LISTEN connection, outside the Hikari pool, and evicts the snapshots other nodes announce. The
+ * reads of those customers are pinned to the primary as well, like the ones of customers who changed their cart on
+ * this node. Whenever the connection is (re)established the whole local cache is flushed and every read pinned, since
+ * notifications sent while disconnected are lost.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "cart.cache.invalidation", name = "enabled", havingValue = "true")
+public class CartInvalidationListener implements SmartLifecycle {
+    private final DataSourceProperties dataSourceProperties;
+    private final CartInvalidationProperties properties;
+    private final CartItemCache cartItemCache;
+    private final ReadYourWrites readYourWrites;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    @Override
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "cart-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        Duration reconnectDelay = properties.minReconnectDelay();
+        while (running) {
+            try (Connection connection = openConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + quoteIdentifier(properties.channel()));
+                }
+                cartItemCache.evictAll();
+                readYourWrites.pinEveryone();
+                reconnectDelay = properties.minReconnectDelay();
+                log.info("Listening for cart invalidations on channel {}", properties.channel());
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                int pollTimeoutMillis = (int) properties.pollTimeout().toMillis();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMillis);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            cartItemCache.evict(notification.getParameter());
+                            readYourWrites.pin(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                // A failure past the connection, e.g. in the cache, must not end the thread either
+                if (!running) {
+                    return;
+                }
+                log.warn("Cart invalidation listener failed, reconnecting in {}", reconnectDelay, e);
+                if (!sleep(reconnectDelay)) {
+                    return;
+                }
+                reconnectDelay = min(reconnectDelay.multipliedBy(2), properties.maxReconnectDelay());
+            }
+        }
+    }
+
+    private Connection openConnection() throws SQLException {
+        Properties connectionProperties = new Properties();
+        connectionProperties.setProperty("user", dataSourceProperties.determineUsername());
+        connectionProperties.setProperty("password", dataSourceProperties.determinePassword());
+        connectionProperties.setProperty("tcpKeepAlive", "true");
+        connectionProperties.setProperty("ApplicationName", "cart-invalidation-listener");
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(), connectionProperties);
+    }
+
+    private static String quoteIdentifier(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private static boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
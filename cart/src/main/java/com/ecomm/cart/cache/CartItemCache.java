@@ -0,0 +1,70 @@
+package com.ecomm.cart.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per-customer snapshots of the cart lines, kept in front of {@code CartItemRepository.findByCustomerId}.
+ */
+@Component
+@RequiredArgsConstructor
+public class CartItemCache {
+    private final Cache<String, CartSnapshot> cartItemsCache;
+    private final SingleFlight<String, CartSnapshot> loads = new SingleFlight<>();
+
+    /**
+     * Returns the cached snapshot or loads it. Concurrent misses for the same customer share a single load, which
+     * is only cached if no eviction happened while it ran.
+     */
+    public CartSnapshot get(String customerId, Function<String, CartSnapshot> loader) {
+        CartSnapshot cart = cartItemsCache.getIfPresent(customerId);
+        if (cart != null) {
+            return cart;
+        }
+        return loads.load(customerId, loader, (key, loaded, isCurrent) -> cartItemsCache.asMap()
+            .compute(key, (k, cached) -> isCurrent.getAsBoolean() ? loaded : cached));
+    }
+
+    public CartSnapshot getIfPresent(String customerId) {
+        return cartItemsCache.getIfPresent(customerId);
+    }
+
+    /**
+     * Drops the customer's snapshot now and again once the surrounding transaction completes, so a read that
+     * raced with the write cannot leave pre-commit data behind.
+     */
+    public void evict(String customerId) {
+        invalidate(customerId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(customerId);
+                }
+            });
+        }
+    }
+
+    public void evictAll() {
+        loads.invalidateAll();
+        cartItemsCache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cartItemsCache.stats();
+    }
+
+    /**
+     * Marks the in-flight load stale before dropping the snapshot, see {@link SingleFlight.Publisher}.
+     */
+    private void invalidate(String customerId) {
+        loads.invalidate(customerId);
+        cartItemsCache.invalidate(customerId);
+    }
+}
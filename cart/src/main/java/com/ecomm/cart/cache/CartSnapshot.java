@@ -0,0 +1,11 @@
+package com.ecomm.cart.cache;
+
+import com.ecomm.cart.viewmodel.CartItemGetVm;
+
+import java.util.List;
+
+/**
+ * The lines of a customer's cart together with the cart version they were read at.
+ */
+public record CartSnapshot(long version, List<CartItemGetVm> items) {
+}
@@ -0,0 +1,94 @@
+package com.ecomm.cart.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Lets concurrent callers asking for the same key share one in-flight load instead of each running their own.
+ * <p>
+ * {@link #invalidate} marks the key's in-flight load as stale: callers arriving afterwards start a new load rather
+ * than join it, so a read that begins after a write completed never receives data loaded before the write. Callers
+ * that joined before the invalidation still get the stale load's result, as they overlapped the write.
+ * <p>
+ * Waiting parks on a {@link CompletableFuture}, and the loader runs outside any lock, so virtual threads are never
+ * pinned while a load is in flight.
+ */
+public final class SingleFlight<K, V> {
+    private final ConcurrentMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Joins the key's current load, or runs {@code loader} as a new one and hands its result to {@code publisher}.
+     */
+    public V load(K key, Function<K, V> loader, Publisher<K, V> publisher) {
+        Flight<V> flight = new Flight<>();
+        while (true) {
+            Flight<V> inFlight = flights.putIfAbsent(key, flight);
+            if (inFlight == null) {
+                break;
+            }
+            if (!inFlight.stale) {
+                return join(inFlight);
+            }
+            if (flights.replace(key, inFlight, flight)) {
+                break;
+            }
+        }
+
+        try {
+            V value = loader.apply(key);
+            publisher.publish(key, value, () -> !flight.stale);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    public void invalidate(K key) {
+        Flight<V> flight = flights.get(key);
+        if (flight != null) {
+            flight.stale = true;
+        }
+    }
+
+    public void invalidateAll() {
+        flights.values().forEach(flight -> flight.stale = true);
+    }
+
+    /**
+     * Stores the result of a new load, typically in a cache.
+     */
+    @FunctionalInterface
+    public interface Publisher<K, V> {
+        /**
+         * {@code isCurrent} turns false once the load is invalidated. Check it atomically with the store, and make
+         * invalidations mark the load before removing the stored value, so a stale result is never left behind.
+         */
+        void publish(K key, V value, BooleanSupplier isCurrent);
+    }
+
+    private static <V> V join(Flight<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Flight<V> extends CompletableFuture<V> {
+        private volatile boolean stale;
+    }
+}
@@ -0,0 +1,15 @@
+package com.ecomm.cart.changestream;
+
+/**
+ * A committed change of one {@code cart_item} row. {@code quantity} is {@code null} for deletions.
+ *
+ * @param lsn WAL position of the change, as {@code LogSequenceNumber.asLong()}
+ */
+public record CartChangeEvent(Type type, String customerId, Long productId, Integer quantity, long lsn) {
+
+    public enum Type {
+        INSERT,
+        UPDATE,
+        DELETE
+    }
+}
@@ -0,0 +1,228 @@
+package com.ecomm.cart.changestream;
+
+import com.ecomm.cart.config.CartChangeStreamProperties;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGProperty;
+import org.postgresql.replication.LogSequenceNumber;
+import org.postgresql.replication.PGReplicationStream;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumes {@code cart_item} changes from a wal2json logical replication slot and fans them out to every
+ * {@link CartChangeSubscriber} bean.
+ *
+ * <p>Row changes are buffered per transaction and only become dispatchable at the transaction's commit message.
+ * Committed events are handed over once {@code batchSize} is reached or {@code flushInterval} elapsed, after which
+ * the commit LSN is confirmed to the server so the slot can release WAL.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "cart.change-stream", name = "enabled", havingValue = "true")
+public class CartChangeStream implements SmartLifecycle {
+    private static final long IDLE_SLEEP_MILLIS = 10;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final CartChangeStreamProperties properties;
+    private final Wal2JsonDecoder decoder;
+    private final ObjectProvider<CartChangeSubscriber> subscribers;
+
+    private volatile boolean running;
+    private volatile LogSequenceNumber acknowledgedLsn = LogSequenceNumber.INVALID_LSN;
+    private Thread streamThread;
+
+    @Override
+    public void start() {
+        running = true;
+        streamThread = new Thread(this::consume, "cart-change-stream");
+        streamThread.setDaemon(true);
+        streamThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (streamThread != null) {
+            streamThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Last LSN confirmed to the server, i.e. the point the slot resumes from after a restart.
+     */
+    public LogSequenceNumber getAcknowledgedLsn() {
+        return acknowledgedLsn;
+    }
+
+    private void consume() {
+        while (running) {
+            try (Connection connection = openReplicationConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                createSlotIfMissing(connection, pgConnection);
+                String tables = resolveTables(connection);
+                try (PGReplicationStream stream = openStream(pgConnection, tables)) {
+                    log.info("Consuming {} changes from replication slot {}", tables, properties.slotName());
+                    poll(stream);
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cart change stream failed, reconnecting in {}", properties.reconnectDelay(), e);
+                try {
+                    Thread.sleep(properties.reconnectDelay().toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void poll(PGReplicationStream stream) throws SQLException {
+        List<CartChangeEvent> committed = new ArrayList<>();
+        List<CartChangeEvent> inProgress = new ArrayList<>();
+        LogSequenceNumber lastCommitLsn = LogSequenceNumber.INVALID_LSN;
+        long lastDispatchNanos = System.nanoTime();
+        long flushIntervalNanos = properties.flushInterval().toNanos();
+
+        while (running) {
+            ByteBuffer buffer = stream.readPending();
+            if (buffer != null) {
+                LogSequenceNumber lsn = stream.getLastReceiveLSN();
+                Wal2JsonDecoder.Wal2JsonMessage message = decoder.decode(toString(buffer), lsn.asLong());
+                if (message.event() != null) {
+                    inProgress.add(message.event());
+                } else if (message.isCommit()) {
+                    committed.addAll(inProgress);
+                    inProgress.clear();
+                    lastCommitLsn = lsn;
+                }
+            }
+
+            boolean batchFull = committed.size() >= properties.batchSize();
+            boolean intervalElapsed = System.nanoTime() - lastDispatchNanos >= flushIntervalNanos;
+            if (lastCommitLsn != LogSequenceNumber.INVALID_LSN && (batchFull || intervalElapsed)) {
+                dispatch(committed);
+                acknowledge(stream, lastCommitLsn);
+                committed = new ArrayList<>();
+                lastCommitLsn = LogSequenceNumber.INVALID_LSN;
+                lastDispatchNanos = System.nanoTime();
+            } else if (buffer == null) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(IDLE_SLEEP_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void dispatch(List<CartChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<CartChangeEvent> batch = List.copyOf(events);
+        subscribers.orderedStream().forEach(subscriber -> subscriber.onCartChanges(batch));
+    }
+
+    private void acknowledge(PGReplicationStream stream, LogSequenceNumber lsn) throws SQLException {
+        stream.setAppliedLSN(lsn);
+        stream.setFlushedLSN(lsn);
+        stream.forceUpdateStatus();
+        acknowledgedLsn = lsn;
+    }
+
+    /**
+     * wal2json reports the rows of a partitioned table under the partition they live in, so the filter lists the
+     * table's leaf partitions. A plain or missing table is passed through as configured.
+     */
+    private String resolveTables(Connection connection) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement("""
+            SELECT n.nspname || '.' || c.relname
+            FROM pg_partition_tree(to_regclass(?)) t
+            JOIN pg_class c ON c.oid = t.relid
+            JOIN pg_namespace n ON n.oid = c.relnamespace
+            WHERE t.isleaf
+            """)) {
+            statement.setString(1, properties.table());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    tables.add(resultSet.getString(1));
+                }
+            }
+        }
+        return tables.isEmpty() ? properties.table() : String.join(",", tables);
+    }
+
+    private PGReplicationStream openStream(PGConnection pgConnection, String tables) throws SQLException {
+        return pgConnection.getReplicationAPI()
+            .replicationStream()
+            .logical()
+            .withSlotName(properties.slotName())
+            .withSlotOption("format-version", 2)
+            .withSlotOption("add-tables", tables)
+            .withStatusInterval((int) properties.statusInterval().toMillis(), TimeUnit.MILLISECONDS)
+            .start();
+    }
+
+    private void createSlotIfMissing(Connection connection, PGConnection pgConnection) throws SQLException {
+        try (PreparedStatement statement =
+                 connection.prepareStatement("SELECT 1 FROM pg_replication_slots WHERE slot_name = ?")) {
+            statement.setString(1, properties.slotName());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return;
+                }
+            }
+        }
+        pgConnection.getReplicationAPI()
+            .createReplicationSlot()
+            .logical()
+            .withSlotName(properties.slotName())
+            .withOutputPlugin("wal2json")
+            .make();
+        log.info("Created logical replication slot {}", properties.slotName());
+    }
+
+    private Connection openReplicationConnection() throws SQLException {
+        Properties connectionProperties = new Properties();
+        PGProperty.USER.set(connectionProperties, dataSourceProperties.determineUsername());
+        PGProperty.PASSWORD.set(connectionProperties, dataSourceProperties.determinePassword());
+        PGProperty.ASSUME_MIN_SERVER_VERSION.set(connectionProperties, "9.4");
+        PGProperty.REPLICATION.set(connectionProperties, "database");
+        PGProperty.PREFER_QUERY_MODE.set(connectionProperties, "simple");
+        PGProperty.APPLICATION_NAME.set(connectionProperties, "cart-change-stream");
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(), connectionProperties);
+    }
+
+    private static String toString(ByteBuffer buffer) {
+        return new String(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(),
+            StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,15 @@
+package com.ecomm.cart.changestream;
+
+import java.util.List;
+
+/**
+ * In-process consumer of the {@code cart_item} change stream.
+ *
+ * <p>Events arrive in commit order, in batches that only contain whole transactions. The batch is acknowledged
+ * to Postgres once every subscriber returned, so a subscriber that throws gets the batch again after the stream
+ * reconnects: delivery is at-least-once.
+ */
+public interface CartChangeSubscriber {
+
+    void onCartChanges(List<CartChangeEvent> events);
+}
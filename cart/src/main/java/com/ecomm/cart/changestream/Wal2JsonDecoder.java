@@ -0,0 +1,64 @@
+package com.ecomm.cart.changestream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decodes wal2json {@code format-version 2} messages, one JSON object per tuple or transaction boundary.
+ */
+@Component
+@RequiredArgsConstructor
+public class Wal2JsonDecoder {
+    private final ObjectMapper objectMapper;
+
+    public Wal2JsonMessage decode(String payload, long lsn) {
+        JsonNode message;
+        try {
+            message = objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed wal2json message at LSN " + lsn, e);
+        }
+
+        char action = message.path("action").asText("?").charAt(0);
+        CartChangeEvent event = switch (action) {
+            case 'I' -> toEvent(CartChangeEvent.Type.INSERT, message.path("columns"), lsn);
+            case 'U' -> toEvent(CartChangeEvent.Type.UPDATE, message.path("columns"), lsn);
+            case 'D' -> toEvent(CartChangeEvent.Type.DELETE, message.path("identity"), lsn);
+            default -> null;
+        };
+        return new Wal2JsonMessage(action, event);
+    }
+
+    private static CartChangeEvent toEvent(CartChangeEvent.Type type, JsonNode columns, long lsn) {
+        String customerId = null;
+        Long productId = null;
+        Integer quantity = null;
+        for (JsonNode column : columns) {
+            JsonNode value = column.path("value");
+            switch (column.path("name").asText()) {
+                case "customer_id" -> customerId = value.asText();
+                case "product_id" -> productId = value.asLong();
+                case "quantity" -> quantity = value.asInt();
+                default -> {
+                    // other columns are not part of the event
+                }
+            }
+        }
+        return new CartChangeEvent(type, customerId, productId, quantity, lsn);
+    }
+
+    /**
+     * @param action wal2json action: {@code B}egin, {@code C}ommit, {@code I}nsert, {@code U}pdate, {@code D}elete, ...
+     * @param event  the decoded row change, {@code null} for anything but I/U/D
+     */
+    public record Wal2JsonMessage(char action, CartChangeEvent event) {
+
+        public boolean isCommit() {
+            return action == 'C';
+        }
+    }
+}
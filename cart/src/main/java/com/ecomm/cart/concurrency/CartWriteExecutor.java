@@ -0,0 +1,129 @@
+package com.ecomm.cart.concurrency;
+
+import com.ecomm.cart.config.CartConcurrencyProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs cart writes each in their own transaction and retries the ones that lose a race: lock and version conflicts,
+ * and inserts of a line another transaction just inserted. Retries back off with full jitter and draw from a shared
+ * {@link RetryBudget}. In {@code striped} mode, writes of the same customer are first serialized on an in-JVM lock so
+ * conflicts between requests served by this node never reach the database.
+ */
+@Slf4j
+@Component
+public class CartWriteExecutor {
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final TransactionOperations transactionOperations;
+    private final CartConcurrencyProperties properties;
+    private final StripedLocks stripedLocks;
+    private final RetryBudget retryBudget;
+    private final Counter retriedCounter;
+    private final Counter attemptsExhaustedCounter;
+    private final Counter budgetExhaustedCounter;
+
+    public CartWriteExecutor(TransactionOperations transactionOperations,
+                             CartConcurrencyProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.transactionOperations = transactionOperations;
+        this.properties = properties;
+        this.stripedLocks = new StripedLocks(properties.lockStripes());
+        this.retryBudget = new RetryBudget(properties.retryBudgetRatio(), properties.retryBudgetReserve());
+        this.retriedCounter = retryCounter(meterRegistry, "retried");
+        this.attemptsExhaustedCounter = retryCounter(meterRegistry, "attempts_exhausted");
+        this.budgetExhaustedCounter = retryCounter(meterRegistry, "budget_exhausted");
+    }
+
+    public <T> T execute(String customerId, Supplier<T> write) {
+        if (properties.mode() != CartConcurrencyProperties.Mode.STRIPED) {
+            return executeWithRetry(write);
+        }
+
+        ReentrantLock lock = stripedLocks.get(customerId);
+        try {
+            if (!lock.tryLock(properties.lockTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new CannotAcquireLockException("Timed out waiting for the cart lock of customer " + customerId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted waiting for the cart lock of customer " + customerId, e);
+        }
+        try {
+            return executeWithRetry(write);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> T executeWithRetry(Supplier<T> write) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Joining the caller's transaction: a conflict has marked it rollback-only, retrying inside is pointless
+            return write.get();
+        }
+
+        retryBudget.recordCall();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionOperations.execute(status -> write.get());
+            } catch (RuntimeException ex) {
+                if (!isConflict(ex)) {
+                    throw ex;
+                }
+                if (attempt >= properties.maxAttempts()) {
+                    attemptsExhaustedCounter.increment();
+                    throw ex;
+                }
+                if (!retryBudget.tryRetry()) {
+                    budgetExhaustedCounter.increment();
+                    throw ex;
+                }
+                retriedCounter.increment();
+                log.debug("Cart write attempt {} conflicted, retrying: {}", attempt, ex.getMessage());
+                backOff(attempt, ex);
+            }
+        }
+    }
+
+    private void backOff(int attempt, RuntimeException conflict) {
+        long ceiling = Math.min(properties.maxBackoff().toNanos(),
+            properties.initialBackoff().toNanos() << Math.min(attempt - 1, 20));
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+
+    static boolean isConflict(RuntimeException ex) {
+        if (ex instanceof ConcurrencyFailureException) {
+            return true;
+        }
+        return ex instanceof DataIntegrityViolationException
+            && NestedExceptionUtils.getMostSpecificCause(ex) instanceof SQLException sqlException
+            && UNIQUE_VIOLATION.equals(sqlException.getSQLState());
+    }
+
+    private static Counter retryCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("cart.write.retries")
+            .description("Cart writes that conflicted, by what happened next")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
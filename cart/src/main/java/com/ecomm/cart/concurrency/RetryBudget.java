@@ -0,0 +1,38 @@
+package com.ecomm.cart.concurrency;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket bounding retries to a share of the calls: every call deposits {@code ratio} of a token, every retry
+ * withdraws a whole one. The bucket starts full with {@code reserve} tokens and never holds more, so a burst of
+ * conflicts can retry {@code reserve} times and a sustained one at most {@code ratio} times per call, instead of
+ * multiplying the load on an already contended database.
+ */
+final class RetryBudget {
+    private static final long TOKEN = 1000;
+
+    private final long depositPerCall;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    RetryBudget(double ratio, int reserve) {
+        this.depositPerCall = Math.round(ratio * TOKEN);
+        this.capacity = Math.max(reserve, 1) * TOKEN;
+        this.balance = new AtomicLong(capacity);
+    }
+
+    void recordCall() {
+        balance.accumulateAndGet(depositPerCall, (current, deposit) -> Math.min(capacity, current + deposit));
+    }
+
+    boolean tryRetry() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+}
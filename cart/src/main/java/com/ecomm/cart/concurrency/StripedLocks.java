@@ -0,0 +1,26 @@
+package com.ecomm.cart.concurrency;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks keys are hashed onto, so per-key mutual exclusion needs no per-key bookkeeping. Keys sharing a
+ * stripe also exclude each other, which a large enough stripe count keeps rare.
+ */
+final class StripedLocks {
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    StripedLocks(int stripes) {
+        int size = Integer.highestOneBit(Math.max(stripes - 1, 1)) << 1;
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    ReentrantLock get(String key) {
+        int hash = key.hashCode();
+        return locks[(hash ^ (hash >>> 16)) & mask];
+    }
+}
@@ -0,0 +1,28 @@
+package com.ecomm.cart.config;
+
+import com.ecomm.cart.cache.CartSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConfig {
+
+    public static final String CART_ITEMS_CACHE = "cartItems";
+
+    @Bean
+    public Cache<String, CartSnapshot> cartItemsCache(CartCacheProperties properties, MeterRegistry meterRegistry) {
+        Cache<String, CartSnapshot> cache = Caffeine.newBuilder()
+            .maximumSize(properties.maximumSize())
+            .expireAfterWrite(properties.expireAfterWrite())
+            .recordStats()
+            .build();
+        // Publishes cache.gets{result=hit|miss}, cache.evictions, cache.size, ... on the actuator metrics endpoint
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, CART_ITEMS_CACHE);
+    }
+}
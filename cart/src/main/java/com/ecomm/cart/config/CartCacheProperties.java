@@ -0,0 +1,17 @@
+package com.ecomm.cart.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Bounds of the in-process cart snapshot cache.
+ *
+ * @param maximumSize      maximum number of customer carts kept in memory
+ * @param expireAfterWrite how long a snapshot may be served before it is reloaded
+ */
+@ConfigurationProperties(prefix = "cart.cache")
+public record CartCacheProperties(
+    @DefaultValue("100000") long maximumSize,
+    @DefaultValue("5m") Duration expireAfterWrite) {
+}
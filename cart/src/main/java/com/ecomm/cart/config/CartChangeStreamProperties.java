@@ -0,0 +1,27 @@
+package com.ecomm.cart.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Logical-replication change stream of {@code cart_item}.
+ *
+ * @param enabled        whether this node consumes the replication slot
+ * @param slotName       logical replication slot, created with the wal2json plugin when missing
+ * @param table          table whose changes are consumed, partitions included
+ * @param batchSize      number of committed events that triggers an immediate dispatch to subscribers
+ * @param flushInterval  longest time committed events wait before being dispatched
+ * @param statusInterval how often the acknowledged LSN is reported to the server when idle
+ * @param reconnectDelay delay before reopening a broken replication connection
+ */
+@ConfigurationProperties(prefix = "cart.change-stream")
+public record CartChangeStreamProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("cart_item_changes") String slotName,
+    @DefaultValue("public.cart_item") String table,
+    @DefaultValue("500") int batchSize,
+    @DefaultValue("200ms") Duration flushInterval,
+    @DefaultValue("10s") Duration statusInterval,
+    @DefaultValue("5s") Duration reconnectDelay) {
+}
@@ -0,0 +1,35 @@
+package com.ecomm.cart.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * How concurrent writes to the same cart are kept from overwriting each other.
+ *
+ * @param mode              {@code optimistic}: versioned lines, conflicts detected at commit and retried;
+ *                          {@code pessimistic}: lines read for update are row-locked until commit;
+ *                          {@code striped}: optimistic, plus writes of one customer serialized in the JVM first
+ * @param lockStripes       number of in-JVM locks customers are hashed onto in {@code striped} mode
+ * @param lockTimeout       how long a write waits for its customer's stripe before failing
+ * @param maxAttempts       attempts of a write that keeps conflicting, the first one included
+ * @param initialBackoff    upper bound of the random pause before the first retry, doubled on each retry
+ * @param maxBackoff        upper bound of the random pause before any retry
+ * @param retryBudgetRatio  retries allowed per write, on average, once the reserve is spent
+ * @param retryBudgetReserve retries allowed in a burst before the ratio applies
+ */
+@ConfigurationProperties(prefix = "cart.concurrency")
+public record CartConcurrencyProperties(
+    @DefaultValue("optimistic") Mode mode,
+    @DefaultValue("1024") int lockStripes,
+    @DefaultValue("2s") Duration lockTimeout,
+    @DefaultValue("4") int maxAttempts,
+    @DefaultValue("10ms") Duration initialBackoff,
+    @DefaultValue("200ms") Duration maxBackoff,
+    @DefaultValue("0.2") double retryBudgetRatio,
+    @DefaultValue("20") int retryBudgetReserve) {
+
+    public enum Mode {
+        OPTIMISTIC, PESSIMISTIC, STRIPED
+    }
+}
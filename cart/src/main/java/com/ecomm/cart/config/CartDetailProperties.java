@@ -0,0 +1,19 @@
+package com.ecomm.cart.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Enriched cart reads.
+ *
+ * @param enrichmentDeadline       total time a cart read waits for product thumbnails before answering with the
+ *                                 ones already cached
+ * @param maxConcurrentEnrichments thumbnail lookups in flight at once, including those that outlived their
+ *                                 deadline; past it reads answer with the cached thumbnails without a lookup
+ */
+@ConfigurationProperties(prefix = "cart.detail")
+public record CartDetailProperties(
+    @DefaultValue("150ms") Duration enrichmentDeadline,
+    @DefaultValue("64") int maxConcurrentEnrichments) {
+}
@@ -0,0 +1,31 @@
+package com.ecomm.cart.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Background purging of abandoned carts.
+ *
+ * @param enabled     whether this node runs the purger; several nodes may, each skips the carts another has locked
+ * @param ttl         time since the last write after which a cart is abandoned
+ * @param interval    pause between two passes over all customers
+ * @param chunkSize   customers examined per chunk, each chunk being one short transaction
+ * @param lockTimeout how long a chunk waits on a cart a concurrent write holds before the chunk is given up
+ * @param dutyCycle   largest share of the time the purger spends in chunks, it sleeps the rest; in (0, 1]
+ */
+@ConfigurationProperties(prefix = "cart.expiry")
+public record CartExpiryProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("30d") Duration ttl,
+    @DefaultValue("1h") Duration interval,
+    @DefaultValue("500") int chunkSize,
+    @DefaultValue("100ms") Duration lockTimeout,
+    @DefaultValue("0.1") double dutyCycle) {
+
+    public CartExpiryProperties {
+        if (!(dutyCycle > 0 && dutyCycle <= 1)) {
+            throw new IllegalArgumentException("cart.expiry.duty-cycle must be in (0, 1] but was " + dutyCycle);
+        }
+    }
+}
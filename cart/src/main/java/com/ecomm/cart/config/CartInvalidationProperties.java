@@ -0,0 +1,23 @@
+package com.ecomm.cart.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Cross-node invalidation of cart snapshots over Postgres LISTEN/NOTIFY.
+ *
+ * @param enabled           whether mutations emit NOTIFY and this node keeps a LISTEN connection
+ * @param channel           notification channel, the payload is the customer id
+ * @param pollTimeout       how long the listener blocks waiting for notifications before checking for shutdown
+ * @param minReconnectDelay first delay before reconnecting a lost LISTEN connection
+ * @param maxReconnectDelay cap of the exponential reconnect delay
+ */
+@ConfigurationProperties(prefix = "cart.cache.invalidation")
+public record CartInvalidationProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("cart_changed") String channel,
+    @DefaultValue("500ms") Duration pollTimeout,
+    @DefaultValue("1s") Duration minReconnectDelay,
+    @DefaultValue("30s") Duration maxReconnectDelay) {
+}
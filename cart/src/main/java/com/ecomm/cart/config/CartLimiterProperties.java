@@ -0,0 +1,33 @@
+package com.ecomm.cart.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Adaptive concurrency limit in front of the cart endpoints, see {@code GradientConcurrencyLimit}.
+ *
+ * @param enabled        whether requests beyond the limit are shed with 503
+ * @param initialLimit   concurrent requests admitted until the limit has adapted
+ * @param minLimit       lowest limit, also the concurrency {@code minRtt} is measured at
+ * @param maxLimit       highest limit
+ * @param rttTolerance   latency increase over {@code minRtt} tolerated before the limit shrinks, 0.25 for 25%
+ * @param updateInterval how often the limit is recomputed from the latency of the requests completed meanwhile
+ * @param minRttInterval how often the latency of unqueued requests is measured again
+ * @param minRttSamples  requests the latency of unqueued requests is averaged over
+ * @param writeShare     share of the limit writes may fill, reads may fill all of it
+ * @param retryAfter     {@code Retry-After} of shed requests
+ */
+@ConfigurationProperties(prefix = "cart.limiter")
+public record CartLimiterProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("20") int initialLimit,
+    @DefaultValue("4") int minLimit,
+    @DefaultValue("200") int maxLimit,
+    @DefaultValue("0.25") double rttTolerance,
+    @DefaultValue("100ms") Duration updateInterval,
+    @DefaultValue("30s") Duration minRttInterval,
+    @DefaultValue("25") int minRttSamples,
+    @DefaultValue("0.7") double writeShare,
+    @DefaultValue("1s") Duration retryAfter) {
+}
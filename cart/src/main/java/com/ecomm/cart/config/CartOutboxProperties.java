@@ -0,0 +1,26 @@
+package com.ecomm.cart.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Outbox of cart changed events and the relay draining it.
+ *
+ * @param enabled      whether cart writes queue events
+ * @param relayEnabled whether this node relays the queued events; several nodes may relay at once
+ * @param batchSize    events claimed per relay transaction, before compaction
+ * @param claimWindow  oldest events a relay looks at to pick the customers it claims; larger than the batch so relays
+ *                     on several nodes find customers the others do not hold
+ * @param pollInterval pause of the relay after a batch that was not full
+ * @param retryDelay   pause of the relay after a batch that failed, e.g. because the sink did
+ */
+@ConfigurationProperties(prefix = "cart.outbox")
+public record CartOutboxProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("true") boolean relayEnabled,
+    @DefaultValue("500") int batchSize,
+    @DefaultValue("2000") int claimWindow,
+    @DefaultValue("100ms") Duration pollInterval,
+    @DefaultValue("1s") Duration retryDelay) {
+}
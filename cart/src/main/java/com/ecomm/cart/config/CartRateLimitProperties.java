@@ -0,0 +1,43 @@
+package com.ecomm.cart.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Per-customer rate limits of the cart mutations, one token bucket per customer and endpoint class.
+ *
+ * @param enabled      whether mutations beyond the limits are rejected with 429
+ * @param maxCustomers customers tracked at once, the least recently seen are forgotten first
+ * @param idleTimeout  how long the buckets of a customer who stopped writing are kept, at least the time they take
+ *                     to refill so forgetting them never raises a limit
+ * @param add          {@code POST /storefront/cart/items} and {@code /batch}
+ * @param update       {@code PUT /storefront/cart/items/{productId}}
+ * @param remove       {@code DELETE /storefront/cart/items/{productId}} and {@code POST /storefront/cart/items/remove}
+ */
+@ConfigurationProperties(prefix = "cart.rate-limit")
+public record CartRateLimitProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("1000000") long maxCustomers,
+    @DefaultValue("10m") Duration idleTimeout,
+    @DefaultValue Bucket add,
+    @DefaultValue Bucket update,
+    @DefaultValue Bucket remove) {
+
+    /**
+     * @param burst     requests allowed at once from a full bucket, at least 1
+     * @param perMinute requests allowed per minute once the burst is spent, at least 1
+     */
+    public record Bucket(
+        @DefaultValue("20") int burst,
+        @DefaultValue("60") int perMinute) {
+
+        public Bucket {
+            if (burst < 1 || perMinute < 1) {
+                throw new IllegalArgumentException(
+                    "cart.rate-limit bucket burst and per-minute must be at least 1 but were " + burst + " and "
+                        + perMinute);
+            }
+        }
+    }
+}
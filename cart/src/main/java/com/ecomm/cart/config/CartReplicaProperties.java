@@ -0,0 +1,37 @@
+package com.ecomm.cart.config;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Read replicas serving the read-only cart transactions.
+ *
+ * @param enabled             whether read-only transactions are routed to the replicas
+ * @param urls                JDBC URLs of the replicas, at least one when enabled
+ * @param username            replica user, the primary's when unset
+ * @param password            replica password, the primary's when unset
+ * @param maximumPoolSize     connections per replica pool
+ * @param readYourWritesWindow how long reads of a customer who just changed their cart stay on the primary, unless the
+ *                            replica is seen to have replayed the change sooner
+ * @param lagPollInterval     how often the WAL position of the primary and of each replica is sampled
+ * @param maxPinnedCustomers  customers whose reads can be pinned to the primary at once, the oldest pins go first
+ */
+@ConfigurationProperties(prefix = "cart.datasource.replica")
+public record CartReplicaProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue List<String> urls,
+    String username,
+    String password,
+    @DefaultValue("20") int maximumPoolSize,
+    @DefaultValue("5s") Duration readYourWritesWindow,
+    @DefaultValue("100ms") Duration lagPollInterval,
+    @DefaultValue("100000") long maxPinnedCustomers) {
+
+    public CartReplicaProperties {
+        if (enabled && urls.isEmpty()) {
+            throw new IllegalArgumentException("cart.datasource.replica.urls must not be empty when enabled");
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.ecomm.cart.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * How carts are laid out in Postgres.
+ *
+ * @param layout    {@code row}: one {@code cart_item} row per line;
+ *                  {@code document}: one {@code cart_document} row per cart, lines kept in a jsonb object
+ * @param migration one-off copy of every cart from one layout to the other, see {@code CartLayoutMigration}
+ */
+@ConfigurationProperties(prefix = "cart.store")
+public record CartStoreProperties(
+    @DefaultValue("row") Layout layout,
+    @DefaultValue Migration migration) {
+
+    public enum Layout {
+        ROW, DOCUMENT
+    }
+
+    /**
+     * @param target    layout to copy the carts into, the migration does not run when unset
+     * @param batchSize customers copied per transaction
+     */
+    public record Migration(
+        Layout target,
+        @DefaultValue("500") int batchSize) {
+    }
+}
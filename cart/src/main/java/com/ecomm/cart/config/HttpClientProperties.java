@@ -0,0 +1,72 @@
+package com.ecomm.cart.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Transport of the {@code RestClient} used for downstream calls. Pool shares, bulkheads and circuit breakers apply
+ * per downstream, i.e. per host and port.
+ *
+ * @param transport      {@code apache} for a pooled HTTP/1.1 client with pool metrics, {@code jdk} for the JDK client
+ *                       negotiating HTTP/2
+ * @param connectTimeout how long establishing a connection may take
+ * @param readTimeout    how long a response may take to arrive
+ * @param pool           connection pool of the {@code apache} transport
+ * @param bulkhead       concurrent calls allowed per downstream
+ * @param circuitBreaker when calls to a failing downstream are rejected without being sent
+ */
+@ConfigurationProperties(prefix = "cart.http")
+public record HttpClientProperties(
+    @DefaultValue("apache") Transport transport,
+    @DefaultValue("500ms") Duration connectTimeout,
+    @DefaultValue("2s") Duration readTimeout,
+    @DefaultValue Pool pool,
+    @DefaultValue Bulkhead bulkhead,
+    @DefaultValue CircuitBreaker circuitBreaker) {
+
+    public enum Transport {
+        APACHE, JDK
+    }
+
+    /**
+     * @param maxConnections              connections kept across all downstreams
+     * @param maxConnectionsPerDownstream connections kept to one downstream
+     * @param acquireTimeout              how long a call waits for a pooled connection before failing
+     * @param idleTimeout                 how long an unused keep-alive connection stays open
+     */
+    public record Pool(
+        @DefaultValue("200") int maxConnections,
+        @DefaultValue("50") int maxConnectionsPerDownstream,
+        @DefaultValue("250ms") Duration acquireTimeout,
+        @DefaultValue("30s") Duration idleTimeout) {
+    }
+
+    /**
+     * @param maxConcurrentCalls calls in flight to one downstream
+     * @param maxWait            how long a call waits for a free slot before failing
+     */
+    public record Bulkhead(
+        @DefaultValue("50") int maxConcurrentCalls,
+        @DefaultValue("0ms") Duration maxWait) {
+    }
+
+    /**
+     * @param failureRateThreshold  percentage of failed calls, errors and 5xx responses, that opens the breaker
+     * @param slowCallDuration      calls slower than this count as slow
+     * @param slowCallRateThreshold percentage of slow calls that opens the breaker
+     * @param slidingWindowSize     number of last calls the rates are computed on
+     * @param minimumNumberOfCalls  calls needed before the rates are evaluated
+     * @param waitInOpenState       how long calls fail fast before trial calls are let through
+     * @param permittedCallsInHalfOpenState trial calls deciding whether the breaker closes again
+     */
+    public record CircuitBreaker(
+        @DefaultValue("50") float failureRateThreshold,
+        @DefaultValue("1s") Duration slowCallDuration,
+        @DefaultValue("80") float slowCallRateThreshold,
+        @DefaultValue("20") int slidingWindowSize,
+        @DefaultValue("10") int minimumNumberOfCalls,
+        @DefaultValue("10s") Duration waitInOpenState,
+        @DefaultValue("3") int permittedCallsInHalfOpenState) {
+    }
+}
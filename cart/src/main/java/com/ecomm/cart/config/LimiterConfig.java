@@ -0,0 +1,46 @@
+package com.ecomm.cart.config;
+
+import com.ecomm.cart.limit.ConcurrencyLimitFilter;
+import com.ecomm.cart.limit.CustomerRateLimiter;
+import com.ecomm.cart.limit.RateLimitFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class LimiterConfig {
+
+    /**
+     * Ordered after the observation filter, so shed requests are still timed and counted in
+     * {@code http.server.requests}.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "cart.limiter", name = "enabled", havingValue = "true")
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(CartLimiterProperties properties,
+                                                                                 MeterRegistry meterRegistry) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+            new FilterRegistrationBean<>(new ConcurrencyLimitFilter(properties, meterRegistry));
+        registration.addUrlPatterns("/storefront/cart/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    /**
+     * Ordered before the concurrency limit, so the requests of a customer over their rate never take a slot.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "cart.rate-limit", name = "enabled", havingValue = "true")
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(CartRateLimitProperties properties,
+                                                                   MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RateLimitFilter> registration =
+            new FilterRegistrationBean<>(new RateLimitFilter(new CustomerRateLimiter(properties), meterRegistry));
+        registration.addUrlPatterns("/storefront/cart/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+}
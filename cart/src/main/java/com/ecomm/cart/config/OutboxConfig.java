@@ -0,0 +1,18 @@
+package com.ecomm.cart.config;
+
+import com.ecomm.cart.outbox.CartEventSink;
+import com.ecomm.cart.outbox.LoggingCartEventSink;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(CartEventSink.class)
+    public CartEventSink cartEventSink() {
+        return new LoggingCartEventSink();
+    }
+}
@@ -0,0 +1,29 @@
+package com.ecomm.cart.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Product service lookups used to validate the products added to a cart.
+ *
+ * @param baseUrl             base URL of the product service
+ * @param validationEnabled   whether cart mutations check that their products exist
+ * @param cacheMaximumSize    maximum number of product ids kept in each of the positive and negative caches
+ * @param existingTtl         how long a product known to exist is trusted without asking again
+ * @param missingTtl          how long a product known to be missing is rejected without asking again
+ * @param batchWindow         how long the first lookup of a batch waits for others to join it
+ * @param maxBatchSize        number of ids that sends a batch immediately, and the most sent in one call
+ * @param lookupTimeout       how long a caller waits for a batch it joined before giving up
+ */
+@ConfigurationProperties(prefix = "cart.product")
+public record ProductServiceProperties(
+    @DefaultValue("http://localhost:8080/product") String baseUrl,
+    @DefaultValue("true") boolean validationEnabled,
+    @DefaultValue("100000") long cacheMaximumSize,
+    @DefaultValue("10m") Duration existingTtl,
+    @DefaultValue("30s") Duration missingTtl,
+    @DefaultValue("2ms") Duration batchWindow,
+    @DefaultValue("100") int maxBatchSize,
+    @DefaultValue("2s") Duration lookupTimeout) {
+}
@@ -0,0 +1,90 @@
+package com.ecomm.cart.config;
+
+import com.ecomm.cart.routing.ReadYourWrites;
+import com.ecomm.cart.routing.ReplicaLagMonitor;
+import com.ecomm.cart.routing.ReplicaRoutingDataSource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Replaces the auto-configured data source with one routing read-only transactions to the replicas when
+ * {@code cart.datasource.replica.enabled}. The primary pool is still configured through {@code spring.datasource}, and
+ * each replica pool starts from a copy of its settings.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "cart.datasource.replica", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             ReadYourWrites readYourWrites,
+                                                             CartReplicaProperties properties,
+                                                             MeterRegistry meterRegistry) {
+        List<HikariDataSource> replicas = replicaDataSources(primaryDataSource, properties, meterRegistry);
+        ReplicaLagMonitor replicaLagMonitor =
+            new ReplicaLagMonitor(primaryDataSource, replicas, properties.lagPollInterval(), meterRegistry);
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWrites, replicaLagMonitor,
+            meterRegistry);
+    }
+
+    /**
+     * Exposes the lag monitor of the routing data source, so it samples the replicas while the context runs.
+     */
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return replicaRoutingDataSource.getReplicaLagMonitor();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    private static List<HikariDataSource> replicaDataSources(HikariDataSource primaryDataSource,
+                                                             CartReplicaProperties properties,
+                                                             MeterRegistry meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.urls().size(); i++) {
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            // copyStateTo shares the primary's data source Properties, so the replica's name goes on its URL instead
+            config.setJdbcUrl(withApplicationName(properties.urls().get(i), "cart-replica-" + i));
+            if (properties.username() != null) {
+                config.setUsername(properties.username());
+                config.setPassword(properties.password());
+            }
+            config.setMaximumPoolSize(properties.maximumPoolSize());
+            config.setPoolName("cart-replica-" + i);
+            config.setReadOnly(true);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new HikariDataSource(config));
+        }
+        return replicas;
+    }
+
+    private static String withApplicationName(String jdbcUrl, String applicationName) {
+        return jdbcUrl + (jdbcUrl.contains("?") ? "&" : "?") + "ApplicationName=" + applicationName;
+    }
+}
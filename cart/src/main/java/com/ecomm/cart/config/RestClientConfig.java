@@ -1,15 +1,128 @@
 package com.ecomm.cart.config;
 
+import com.ecomm.cart.http.DownstreamResilienceInterceptor;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.Executors;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
 @Configuration
 public class RestClientConfig {
 
     @Bean
-    public RestClient restClient() {
-        return RestClient.builder().build();
+    public RestClient restClient(ClientHttpRequestFactory downstreamRequestFactory,
+                                 CircuitBreakerRegistry downstreamCircuitBreakers,
+                                 BulkheadRegistry downstreamBulkheads) {
+        return RestClient.builder()
+            .requestFactory(downstreamRequestFactory)
+            .requestInterceptor(new DownstreamResilienceInterceptor(downstreamCircuitBreakers, downstreamBulkheads))
+            .build();
+    }
+
+    @Bean
+    public ClientHttpRequestFactory downstreamRequestFactory(
+        HttpClientProperties properties,
+        MeterRegistry meterRegistry,
+        @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        return switch (properties.transport()) {
+            case APACHE -> apacheRequestFactory(properties, meterRegistry);
+            case JDK -> jdkRequestFactory(properties, virtualThreads);
+        };
+    }
+
+    @Bean
+    public CircuitBreakerRegistry downstreamCircuitBreakers(HttpClientProperties properties,
+                                                           MeterRegistry meterRegistry) {
+        HttpClientProperties.CircuitBreaker circuitBreaker = properties.circuitBreaker();
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .failureRateThreshold(circuitBreaker.failureRateThreshold())
+            .slowCallDurationThreshold(circuitBreaker.slowCallDuration())
+            .slowCallRateThreshold(circuitBreaker.slowCallRateThreshold())
+            .slidingWindowSize(circuitBreaker.slidingWindowSize())
+            .minimumNumberOfCalls(circuitBreaker.minimumNumberOfCalls())
+            .waitDurationInOpenState(circuitBreaker.waitInOpenState())
+            .permittedNumberOfCallsInHalfOpenState(circuitBreaker.permittedCallsInHalfOpenState())
+            .build());
+        // Publishes resilience4j.circuitbreaker.state, .calls{kind=successful|failed|not_permitted}, ... per downstream
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry;
     }
 
+    @Bean
+    public BulkheadRegistry downstreamBulkheads(HttpClientProperties properties, MeterRegistry meterRegistry) {
+        BulkheadRegistry registry = BulkheadRegistry.of(BulkheadConfig.custom()
+            .maxConcurrentCalls(properties.bulkhead().maxConcurrentCalls())
+            .maxWaitDuration(properties.bulkhead().maxWait())
+            .build());
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    /**
+     * Pooled keep-alive connections with a share per downstream. Waiting for a pooled connection is bounded so a
+     * saturated downstream fails fast instead of queueing request threads.
+     */
+    private static ClientHttpRequestFactory apacheRequestFactory(HttpClientProperties properties,
+                                                                 MeterRegistry meterRegistry) {
+        HttpClientProperties.Pool pool = properties.pool();
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(pool.maxConnections())
+            .setMaxConnPerRoute(pool.maxConnectionsPerDownstream())
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(properties.connectTimeout()))
+                .setSocketTimeout(Timeout.of(properties.readTimeout()))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build())
+            .build();
+        // Publishes httpcomponents.httpclient.pool.total.{max,connections,pending} and .route.max
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "downstream").bindTo(meterRegistry);
+
+        return new HttpComponentsClientHttpRequestFactory(HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(pool.acquireTimeout()))
+                .setResponseTimeout(Timeout.of(properties.readTimeout()))
+                .build())
+            .evictIdleConnections(TimeValue.of(pool.idleTimeout()))
+            .disableAutomaticRetries()
+            .build());
+    }
+
+    /**
+     * JDK client negotiating HTTP/2, so calls to one downstream share multiplexed connections.
+     */
+    private static ClientHttpRequestFactory jdkRequestFactory(HttpClientProperties properties,
+                                                              boolean virtualThreads) {
+        HttpClient.Builder httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(properties.connectTimeout());
+        if (virtualThreads) {
+            httpClient.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient.build());
+        requestFactory.setReadTimeout(properties.readTimeout());
+        return requestFactory;
+    }
 }
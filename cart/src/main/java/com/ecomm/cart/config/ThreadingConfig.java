@@ -0,0 +1,13 @@
+package com.ecomm.cart.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * {@code @Async} methods run on Boot's {@code applicationTaskExecutor}: a pooled executor by default, a
+ * {@code SimpleAsyncTaskExecutor} spawning virtual threads when {@code spring.threads.virtual.enabled=true}.
+ */
+@Configuration
+@EnableAsync
+public class ThreadingConfig {
+}
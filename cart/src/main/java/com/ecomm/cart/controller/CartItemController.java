@@ -1,15 +1,28 @@
 package com.ecomm.cart.controller;
 
+import com.ecomm.cart.cache.CartSnapshot;
+import com.ecomm.cart.service.CartDetailService;
 import com.ecomm.cart.service.CartItemService;
+import com.ecomm.cart.service.CartVersionService;
+import com.ecomm.cart.viewmodel.CartDetailVm;
 import com.ecomm.cart.viewmodel.CartItemDeleteVm;
 import com.ecomm.cart.viewmodel.CartItemGetVm;
+import com.ecomm.cart.viewmodel.CartItemPageVm;
 import com.ecomm.cart.viewmodel.CartItemPostVm;
 import com.ecomm.cart.viewmodel.CartItemPutVm;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import jakarta.validation.Valid;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,42 +31,115 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 @RestController
 @RequiredArgsConstructor
 public class CartItemController {
     private final CartItemService cartItemService;
+    private final CartDetailService cartDetailService;
+    private final CartVersionService cartVersionService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/storefront/cart/items")
     public ResponseEntity<CartItemGetVm> addCartItem(@Valid @RequestBody CartItemPostVm cartItemPostVm) {
         CartItemGetVm cartItemGetVm = cartItemService.addCartItem(cartItemPostVm);
-        return ResponseEntity.ok(cartItemGetVm);
+        return withWrittenCartVersion(ResponseEntity.ok()).body(cartItemGetVm);
+    }
+
+    @PostMapping("/storefront/cart/items/batch")
+    public ResponseEntity<List<CartItemGetVm>> addCartItems(
+        @RequestBody List<@Valid CartItemPostVm> cartItemPostVms) {
+        List<CartItemGetVm> cartItemGetVms = cartItemService.addCartItems(cartItemPostVms);
+        return withWrittenCartVersion(ResponseEntity.ok()).body(cartItemGetVms);
     }
 
     @PutMapping("/storefront/cart/items/{productId}")
     public ResponseEntity<CartItemGetVm> updateCartItem(@PathVariable Long productId,
                                                         @Valid @RequestBody CartItemPutVm cartItemPutVm) {
         CartItemGetVm cartItemGetVm = cartItemService.updateCartItem(productId, cartItemPutVm);
-        return ResponseEntity.ok(cartItemGetVm);
+        return withWrittenCartVersion(ResponseEntity.ok()).body(cartItemGetVm);
     }
 
+    /**
+     * Serves the cart with its version as a strong ETag. A matching {@code If-None-Match} is answered with 304 from
+     * the version alone, without loading or serializing the lines.
+     */
     @GetMapping("/storefront/cart/items")
-    public ResponseEntity<List<CartItemGetVm>> getCartItems () {
-        List<CartItemGetVm> cartItemGetVms = cartItemService.getCartItems();
-        return ResponseEntity.ok(cartItemGetVms);
+    public ResponseEntity<List<CartItemGetVm>> getCartItems(WebRequest webRequest) {
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            String eTag = toETag(cartItemService.getCartVersion());
+            if (webRequest.checkNotModified(eTag)) {
+                // The 304 and its ETag are already set on the response
+                return null;
+            }
+        }
+        CartSnapshot cart = cartItemService.getCart();
+        return ResponseEntity.ok().eTag(toETag(cart.version())).body(cart.items());
+    }
+
+    @GetMapping("/storefront/cart/items/page")
+    public ResponseEntity<CartItemPageVm> getCartItemPage(@RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "100") int size) {
+        CartItemPageVm cartItemPageVm = cartItemService.getCartItemPage(cursor, size);
+        return ResponseEntity.ok(cartItemPageVm);
+    }
+
+    /**
+     * Writes the cart as a JSON array while it is read from the database, so neither the lines nor the response
+     * body are ever held whole. Runs on the async request executor once the handler returns.
+     */
+    @GetMapping("/storefront/cart/items/stream")
+    public ResponseEntity<StreamingResponseBody> streamCartItems() {
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.createGenerator(outputStream);
+            generator.writeStartArray();
+            cartItemService.forEachCartItem(cartItem -> writeCartItem(generator, cartItem));
+            generator.writeEndArray();
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/storefront/cart/items/details")
+    public ResponseEntity<CartDetailVm> getCartDetail() {
+        CartDetailVm cartDetailVm = cartDetailService.getCartDetail();
+        return ResponseEntity.ok(cartDetailVm);
     }
 
     @PostMapping("/storefront/cart/items/remove")
     public ResponseEntity<List<CartItemGetVm>> removeCartItems(
         @RequestBody List<@Valid CartItemDeleteVm> cartItemDeleteVms) {
         List<CartItemGetVm> cartItemGetVms = cartItemService.deleteOrAdjustCartItem(cartItemDeleteVms);
-        return ResponseEntity.ok(cartItemGetVms);
+        return withWrittenCartVersion(ResponseEntity.ok()).body(cartItemGetVms);
     }
 
     @DeleteMapping("/storefront/cart/items/{productId}")
     public ResponseEntity<Void> deleteCartItem(@PathVariable Long productId) {
         cartItemService.deleteCartItem(productId);
-        return ResponseEntity.noContent().build();
+        return withWrittenCartVersion(ResponseEntity.status(HttpStatus.NO_CONTENT)).build();
+    }
+
+    /**
+     * Returns the version written by the request as the new ETag, so the client can skip the follow-up read.
+     */
+    private <B extends ResponseEntity.HeadersBuilder<B>> B withWrittenCartVersion(B response) {
+        cartVersionService.getWrittenVersion().ifPresent(version -> response.eTag(toETag(version)));
+        return response;
+    }
+
+    private static void writeCartItem(JsonGenerator generator, CartItemGetVm cartItem) {
+        try {
+            generator.writePOJO(cartItem);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String toETag(long cartVersion) {
+        return "\"" + cartVersion + "\"";
     }
 }
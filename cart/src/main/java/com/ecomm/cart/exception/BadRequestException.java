@@ -0,0 +1,19 @@
+package com.ecomm.cart.exception;
+
+import java.util.Arrays;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Getter
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BadRequestException extends RuntimeException {
+    private final String errorCode;
+    private final transient Object[] args;
+
+    public BadRequestException(String errorCode, Object... args) {
+        super(errorCode + " " + Arrays.toString(args));
+        this.errorCode = errorCode;
+        this.args = args;
+    }
+}
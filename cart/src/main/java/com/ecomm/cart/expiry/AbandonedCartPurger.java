@@ -0,0 +1,207 @@
+package com.ecomm.cart.expiry;
+
+import com.ecomm.cart.cache.CartInvalidationBus;
+import com.ecomm.cart.config.CartExpiryProperties;
+import com.ecomm.cart.outbox.CartOutbox;
+import com.ecomm.cart.store.CartStore;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Deletes the carts nobody wrote to for {@code cart.expiry.ttl}, in the background when {@code cart.expiry.enabled}.
+ *
+ * <p>Each pass walks {@code cart_version} in primary key order, {@code chunkSize} customers at a time. A chunk is one
+ * short transaction that locks the expired carts of its key range with {@code SKIP LOCKED}, so it never queues behind
+ * a cart being written or another node's purger, and waits at most {@code lockTimeout} for a line a write holds before
+ * the chunk is given up. A purged cart keeps its version row: the version is bumped, with a cart changed event, so
+ * no stale ETag matches the emptied cart, and {@code touched_at} is cleared until the customer writes again. Between
+ * chunks the purger sleeps long enough to stay within its {@code dutyCycle}.
+ */
+@Slf4j
+@Component
+public class AbandonedCartPurger implements SmartLifecycle {
+    private static final String NEXT_CHUNK = """
+        SELECT max(customer_id), count(*)
+        FROM (SELECT customer_id FROM cart_version WHERE customer_id > ? ORDER BY customer_id LIMIT ?) AS chunk
+        """;
+    private static final String LOCK_EXPIRED = """
+        SELECT customer_id
+        FROM cart_version
+        WHERE customer_id > ? AND customer_id <= ? AND touched_at < now() - make_interval(secs => ?)
+        ORDER BY customer_id
+        FOR UPDATE SKIP LOCKED
+        """;
+    private static final String MARK_PURGED = """
+        UPDATE cart_version SET version = version + 1, touched_at = NULL WHERE customer_id = ANY(?)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final CartStore cartStore;
+    private final CartInvalidationBus cartInvalidationBus;
+    private final CartOutbox cartOutbox;
+    private final CartExpiryProperties properties;
+    private final Counter examinedCounter;
+    private final Counter purgedCounter;
+    private final Counter passesCounter;
+    private final Timer purgedChunkTimer;
+    private final Timer lockTimeoutChunkTimer;
+
+    private volatile boolean running;
+    private Thread purgeThread;
+
+    public AbandonedCartPurger(JdbcTemplate jdbcTemplate,
+                               TransactionOperations transactionOperations,
+                               CartStore cartStore,
+                               CartInvalidationBus cartInvalidationBus,
+                               CartOutbox cartOutbox,
+                               CartExpiryProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.cartStore = cartStore;
+        this.cartInvalidationBus = cartInvalidationBus;
+        this.cartOutbox = cartOutbox;
+        this.properties = properties;
+        this.examinedCounter = Counter.builder("cart.expiry.examined")
+            .description("Customers examined by the abandoned cart purger")
+            .register(meterRegistry);
+        this.purgedCounter = Counter.builder("cart.expiry.purged")
+            .description("Abandoned carts purged")
+            .register(meterRegistry);
+        this.passesCounter = Counter.builder("cart.expiry.passes")
+            .description("Completed passes of the abandoned cart purger over all customers")
+            .register(meterRegistry);
+        this.purgedChunkTimer = chunkTimer(meterRegistry, "purged");
+        this.lockTimeoutChunkTimer = chunkTimer(meterRegistry, "lock_timeout");
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        purgeThread = new Thread(this::purgePeriodically, "cart-expiry");
+        purgeThread.setDaemon(true);
+        purgeThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (purgeThread != null) {
+            purgeThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return properties.enabled();
+    }
+
+    /**
+     * Walks every customer once and returns the number of carts purged. Stops early when the thread is interrupted.
+     */
+    public long purgePass() {
+        long purged = 0;
+        String lastCustomerId = "";
+        while (!Thread.currentThread().isInterrupted()) {
+            Chunk chunk = jdbcTemplate.queryForObject(NEXT_CHUNK,
+                (resultSet, rowNum) -> new Chunk(resultSet.getString(1), resultSet.getInt(2)),
+                lastCustomerId, properties.chunkSize());
+            if (chunk.size() == 0) {
+                passesCounter.increment();
+                break;
+            }
+            long startNanos = System.nanoTime();
+            purged += purgeChunk(lastCustomerId, chunk.end());
+            examinedCounter.increment(chunk.size());
+            lastCustomerId = chunk.end();
+            throttle(System.nanoTime() - startNanos);
+        }
+        return purged;
+    }
+
+    private int purgeChunk(String afterCustomerId, String chunkEnd) {
+        long startNanos = System.nanoTime();
+        try {
+            List<String> customerIds = transactionOperations.execute(status -> {
+                jdbcTemplate.queryForObject("SELECT set_config('lock_timeout', ?, true)", String.class,
+                    properties.lockTimeout().toMillis() + "ms");
+                return purgeExpired(afterCustomerId, chunkEnd);
+            });
+            purgedChunkTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            purgedCounter.increment(customerIds.size());
+            return customerIds.size();
+        } catch (PessimisticLockingFailureException e) {
+            // A cart of the chunk is being written right now, so it is not abandoned: leave the chunk to the next pass
+            lockTimeoutChunkTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            log.debug("Gave up purging the customers after {} up to {}: {}", afterCustomerId, chunkEnd, e.getMessage());
+            return 0;
+        }
+    }
+
+    private List<String> purgeExpired(String afterCustomerId, String chunkEnd) {
+        List<String> customerIds = jdbcTemplate.queryForList(LOCK_EXPIRED, String.class,
+            afterCustomerId, chunkEnd, properties.ttl().toMillis() / 1000.0);
+        if (customerIds.isEmpty()) {
+            return customerIds;
+        }
+        String[] batch = customerIds.toArray(String[]::new);
+        cartStore.deleteCarts(batch);
+        jdbcTemplate.update(MARK_PURGED, (Object) batch);
+        cartOutbox.appendAll(batch);
+        cartInvalidationBus.publishAll(customerIds);
+        return customerIds;
+    }
+
+    private void throttle(long chunkNanos) {
+        double dutyCycle = properties.dutyCycle();
+        try {
+            TimeUnit.NANOSECONDS.sleep((long) (chunkNanos * (1 - dutyCycle) / dutyCycle));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void purgePeriodically() {
+        while (running) {
+            try {
+                long purged = purgePass();
+                log.info("Purged {} carts abandoned for more than {}", purged, properties.ttl());
+            } catch (RuntimeException e) {
+                log.warn("Abandoned cart purge failed, retrying in {}", properties.interval(), e);
+            }
+            try {
+                Thread.sleep(properties.interval().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private record Chunk(String end, int size) {
+    }
+
+    private static Timer chunkTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("cart.expiry.chunks")
+            .description("Chunk transactions of the abandoned cart purger, by outcome")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
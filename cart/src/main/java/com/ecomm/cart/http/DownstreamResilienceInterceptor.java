@@ -0,0 +1,77 @@
+package com.ecomm.cart.http;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.CancellationException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Guards each downstream, identified by the host and port of the request, with its own bulkhead and circuit breaker.
+ * A call first needs a permit from the breaker, then a slot in the bulkhead; either rejection surfaces as a
+ * {@link ResourceAccessException} without the request being sent. I/O errors and 5xx responses count as breaker
+ * failures. The JDK transport enforces its read timeout by cancelling the response future, which can escape as a
+ * bare {@link CancellationException}; it is rethrown as an {@link HttpTimeoutException} so both transports time out
+ * with the same {@link ResourceAccessException}.
+ */
+@RequiredArgsConstructor
+public class DownstreamResilienceInterceptor implements ClientHttpRequestInterceptor {
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+        throws IOException {
+        String downstream = request.getURI().getAuthority();
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(downstream);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(downstream);
+
+        try {
+            circuitBreaker.acquirePermission();
+        } catch (CallNotPermittedException e) {
+            throw new ResourceAccessException("Circuit breaker open for " + downstream);
+        }
+        try {
+            bulkhead.acquirePermission();
+        } catch (BulkheadFullException e) {
+            circuitBreaker.releasePermission();
+            throw new ResourceAccessException("Bulkhead full for " + downstream);
+        }
+
+        long start = circuitBreaker.getCurrentTimestamp();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            long duration = circuitBreaker.getCurrentTimestamp() - start;
+            if (response.getStatusCode().is5xxServerError()) {
+                circuitBreaker.onError(duration, circuitBreaker.getTimestampUnit(), new HttpServerErrorException(
+                    response.getStatusCode(), "Downstream " + downstream + " answered " + response.getStatusCode()));
+            } else {
+                circuitBreaker.onSuccess(duration, circuitBreaker.getTimestampUnit());
+            }
+            return response;
+        } catch (CancellationException e) {
+            HttpTimeoutException timeout = new HttpTimeoutException("Request to " + downstream + " timed out");
+            timeout.initCause(e);
+            circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit(),
+                timeout);
+            throw timeout;
+        } catch (IOException | RuntimeException e) {
+            circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit(), e);
+            throw e;
+        } finally {
+            bulkhead.onComplete();
+        }
+    }
+}
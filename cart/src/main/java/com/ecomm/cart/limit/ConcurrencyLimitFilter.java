@@ -0,0 +1,150 @@
+package com.ecomm.cart.limit;
+
+import com.ecomm.cart.config.CartLimiterProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Sheds the requests beyond the adaptive {@link GradientConcurrencyLimit} with an immediate 503 and
+ * {@code Retry-After}, instead of letting them queue for a database connection until they time out.
+ *
+ * <p>Reads ({@code GET} and {@code HEAD}) may fill the whole limit, writes only {@code writeShare} of it. Writes hold
+ * row locks and a primary connection for their whole, possibly retried, transaction while reads are mostly answered
+ * from the snapshot cache or a replica, so under load writes are shed first and carts stay readable. The latency fed
+ * to the limit runs until the response is complete, streamed asynchronous responses included.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private final GradientConcurrencyLimit limit;
+    private final CartLimiterProperties properties;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final Counter admittedReads;
+    private final Counter admittedWrites;
+    private final Counter rejectedReads;
+    private final Counter rejectedWrites;
+
+    public ConcurrencyLimitFilter(CartLimiterProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    ConcurrencyLimitFilter(CartLimiterProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.limit = new GradientConcurrencyLimit(properties.initialLimit(), properties.minLimit(),
+            properties.maxLimit(), properties.rttTolerance(), properties.updateInterval().toNanos(),
+            properties.minRttInterval().toNanos(), properties.minRttSamples());
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        Gauge.builder("cart.limiter.limit", limit, GradientConcurrencyLimit::getLimit)
+            .description("Concurrent requests currently admitted to the cart endpoints")
+            .register(meterRegistry);
+        Gauge.builder("cart.limiter.inflight", inflight, AtomicInteger::get)
+            .description("Requests currently running in the cart endpoints")
+            .register(meterRegistry);
+        this.admittedReads = requestCounter(meterRegistry, "read", "admitted");
+        this.admittedWrites = requestCounter(meterRegistry, "write", "admitted");
+        this.rejectedReads = requestCounter(meterRegistry, "read", "rejected");
+        this.rejectedWrites = requestCounter(meterRegistry, "write", "rejected");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        if (!tryAcquire(read)) {
+            (read ? rejectedReads : rejectedWrites).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(properties.retryAfter().toSeconds()));
+            return;
+        }
+        (read ? admittedReads : admittedWrites).increment();
+
+        long startedAt = nanoClock.getAsLong();
+        boolean releasedOnCompletion = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(startedAt));
+                releasedOnCompletion = true;
+            }
+        } finally {
+            if (!releasedOnCompletion) {
+                release(startedAt);
+            }
+        }
+    }
+
+    int getLimit() {
+        return limit.getLimit();
+    }
+
+    private boolean tryAcquire(boolean read) {
+        int admitted = read ? limit.getLimit() : Math.max(1, (int) (limit.getLimit() * properties.writeShare()));
+        int current;
+        do {
+            current = inflight.get();
+            if (current >= admitted) {
+                return false;
+            }
+        } while (!inflight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void release(long startedAt) {
+        long now = nanoClock.getAsLong();
+        limit.onSample(now, now - startedAt, inflight.getAndDecrement());
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String kind, String outcome) {
+        return Counter.builder("cart.limiter.requests")
+            .description("Requests to the cart endpoints, by kind and whether the concurrency limit admitted them")
+            .tag("kind", kind)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Releases the slot of a request handled asynchronously once its response is complete, timeouts and errors
+     * included.
+     */
+    private final class ReleaseOnCompletion implements AsyncListener {
+        private final long startedAt;
+
+        private ReleaseOnCompletion(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(startedAt);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.ecomm.cart.limit;
+
+import com.ecomm.cart.config.CartRateLimitProperties;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets per customer and {@link EndpointClass}, kept as the generic cell rate algorithm: a bucket is the
+ * single instant its next request is "due" at, each admitted request pushing it one emission interval
+ * ({@code 1 / rate}) further, and a request is admitted while that instant is at most {@code burst - 1} intervals
+ * ahead of now. Taking a token is one compare-and-set on the customer's {@link AtomicLongArray}, without locks.
+ *
+ * <p>The buckets live in a Caffeine cache bounded to {@code maxCustomers} entries that also forgets customers idle
+ * for {@code idleTimeout}, so memory stays proportional to the configured bound whatever the number of customers. A
+ * forgotten bucket comes back full, which is what it would have refilled to after that long anyway.
+ */
+public class CustomerRateLimiter {
+    private final Cache<String, AtomicLongArray> dueAtByCustomerId;
+    private final long[] emissionIntervalNanos = new long[EndpointClass.values().length];
+    private final long[] burstToleranceNanos = new long[EndpointClass.values().length];
+    private final LongSupplier nanoClock;
+
+    public CustomerRateLimiter(CartRateLimitProperties properties) {
+        this(properties, System::nanoTime, ForkJoinPool.commonPool());
+    }
+
+    CustomerRateLimiter(CartRateLimitProperties properties, LongSupplier nanoClock, Executor executor) {
+        this.dueAtByCustomerId = Caffeine.newBuilder()
+            .maximumSize(properties.maxCustomers())
+            .expireAfterAccess(properties.idleTimeout())
+            .ticker(nanoClock::getAsLong)
+            .executor(executor)
+            .build();
+        this.nanoClock = nanoClock;
+        configure(EndpointClass.ADD, properties.add());
+        configure(EndpointClass.UPDATE, properties.update());
+        configure(EndpointClass.REMOVE, properties.remove());
+    }
+
+    /**
+     * Takes a token from the bucket of {@code customerId} for {@code endpointClass}. Returns 0 when one was taken,
+     * otherwise how many nanoseconds until the next one is available.
+     */
+    public long tryAcquire(String customerId, EndpointClass endpointClass) {
+        long now = nanoClock.getAsLong();
+        AtomicLongArray dueAt = dueAtByCustomerId.get(customerId, id -> newBuckets(now));
+        int bucket = endpointClass.ordinal();
+        while (true) {
+            long current = dueAt.get(bucket);
+            long start = current - now > 0 ? current : now;
+            long wait = start - now - burstToleranceNanos[bucket];
+            if (wait > 0) {
+                return wait;
+            }
+            if (dueAt.compareAndSet(bucket, current, start + emissionIntervalNanos[bucket])) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the approximate number of customers tracked.
+     */
+    public long trackedCustomers() {
+        return dueAtByCustomerId.estimatedSize();
+    }
+
+    private void configure(EndpointClass endpointClass, CartRateLimitProperties.Bucket bucket) {
+        long emissionInterval = TimeUnit.MINUTES.toNanos(1) / bucket.perMinute();
+        emissionIntervalNanos[endpointClass.ordinal()] = emissionInterval;
+        burstToleranceNanos[endpointClass.ordinal()] = emissionInterval * (bucket.burst() - 1);
+    }
+
+    private static AtomicLongArray newBuckets(long now) {
+        AtomicLongArray dueAt = new AtomicLongArray(EndpointClass.values().length);
+        for (int i = 0; i < dueAt.length(); i++) {
+            dueAt.set(i, now);
+        }
+        return dueAt;
+    }
+
+    public enum EndpointClass {
+        ADD, UPDATE, REMOVE
+    }
+}
@@ -0,0 +1,100 @@
+package com.ecomm.cart.limit;
+
+/**
+ * Concurrency limit following the latency of the requests it lets through, after the gradient controller of Envoy's
+ * adaptive concurrency filter.
+ *
+ * <p>The limit is compared against {@code minRtt}, the latency of requests that did not queue anywhere. Every
+ * {@code updateInterval} the average RTT of the requests completed in the interval gives
+ * <pre>
+ * gradient = clamp((1 + rttTolerance) * minRtt / rtt, 0.5, 2)
+ * limit    = limit * gradient + sqrt(limit * gradient)
+ * </pre>
+ * so the limit settles where requests start queueing for database connections, with a little headroom, and halves
+ * every interval while they queue far beyond the tolerance. It does not grow from intervals where less than half of
+ * it was in use, so a quiet period does not inflate it.
+ *
+ * <p>{@code minRtt} is measured again every {@code minRttInterval}: the limit is lowered to {@code minLimit} until
+ * {@code minRttSamples} requests completed at that concurrency, their average becomes the new {@code minRtt}, and the
+ * previous limit is restored. A database that stays slow thus becomes the new normal after at most one
+ * {@code minRttInterval}. The first measurement is taken right away, the initial limit applies once it is done.
+ */
+final class GradientConcurrencyLimit {
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final long updateIntervalNanos;
+    private final long minRttIntervalNanos;
+    private final int minRttSamples;
+
+    private double estimatedLimit;
+    private long minRttNanos;
+    private long nextMinRttAt;
+    private boolean measuringMinRtt = true;
+    private long windowStartedAt;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInflight;
+    private volatile int limit;
+
+    GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double rttTolerance,
+                             long updateIntervalNanos, long minRttIntervalNanos, int minRttSamples) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.updateIntervalNanos = updateIntervalNanos;
+        this.minRttIntervalNanos = minRttIntervalNanos;
+        this.minRttSamples = minRttSamples;
+        this.estimatedLimit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.limit = minLimit;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Records a request completed at {@code nowNanos} after {@code rttNanos}, while {@code inflight} requests, itself
+     * included, were running.
+     */
+    synchronized void onSample(long nowNanos, long rttNanos, int inflight) {
+        if (measuringMinRtt) {
+            // Requests admitted before the limit was lowered ran at a higher concurrency
+            if (inflight <= minLimit && addToWindow(nowNanos, rttNanos, inflight) >= minRttSamples) {
+                minRttNanos = Math.max(windowRttSum / windowSamples, 1);
+                measuringMinRtt = false;
+                nextMinRttAt = nowNanos + minRttIntervalNanos;
+                limit = (int) estimatedLimit;
+                windowSamples = 0;
+            }
+            return;
+        }
+        addToWindow(nowNanos, rttNanos, inflight);
+        if (nowNanos - windowStartedAt < updateIntervalNanos) {
+            return;
+        }
+        double gradient = Math.clamp((1 + rttTolerance) * minRttNanos / (windowRttSum / windowSamples), 0.5, 2.0);
+        if (gradient < 1 || windowMaxInflight >= estimatedLimit / 2) {
+            double gradientLimit = estimatedLimit * gradient;
+            estimatedLimit = Math.clamp(gradientLimit + Math.sqrt(gradientLimit), minLimit, maxLimit);
+        }
+        windowSamples = 0;
+        if (nowNanos - nextMinRttAt >= 0) {
+            measuringMinRtt = true;
+            limit = minLimit;
+        } else {
+            limit = (int) estimatedLimit;
+        }
+    }
+
+    private int addToWindow(long nowNanos, long rttNanos, int inflight) {
+        if (windowSamples == 0) {
+            windowStartedAt = nowNanos;
+            windowRttSum = 0;
+            windowMaxInflight = 0;
+        }
+        windowRttSum += rttNanos;
+        windowMaxInflight = Math.max(windowMaxInflight, inflight);
+        return ++windowSamples;
+    }
+}
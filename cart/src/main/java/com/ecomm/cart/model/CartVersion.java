@@ -0,0 +1,33 @@
+package com.ecomm.cart.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+
+/**
+ * Version of a customer's whole cart, bumped by every cart mutation and served as the cart's ETag.
+ */
+@Entity
+@Table(name = "cart_version")
+@NoArgsConstructor
+@AllArgsConstructor
+@lombok.Getter
+@lombok.Setter
+public class CartVersion {
+  @Id
+  private String customerId;
+
+  @Column(nullable = false)
+  private long version;
+
+  /**
+   * Time of the last cart write, {@code null} once the cart was purged as abandoned.
+   */
+  private Instant touchedAt;
+}
@@ -0,0 +1,41 @@
+package com.ecomm.cart.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts repository calls that fail on a lock conflict as {@code cart.lock.conflicts}, tagged by repository method and
+ * by kind: {@code optimistic} for version mismatches, {@code pessimistic} for lock timeouts, deadlocks and
+ * serialization failures. The exception is rethrown unchanged.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class LockConflictMetrics {
+    private static final String METRIC_NAME = "cart.lock.conflicts";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object countConflicts(ProceedingJoinPoint joinPoint) throws Throwable {
+        try {
+            return joinPoint.proceed();
+        } catch (ConcurrencyFailureException ex) {
+            Counter.builder(METRIC_NAME)
+                .description("Repository calls failed on a lock conflict")
+                .tag("method", joinPoint.getSignature().getName())
+                .tag("kind", ex instanceof OptimisticLockingFailureException ? "optimistic" : "pessimistic")
+                .register(meterRegistry)
+                .increment();
+            throw ex;
+        }
+    }
+}
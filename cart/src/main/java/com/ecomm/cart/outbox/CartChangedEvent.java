@@ -0,0 +1,10 @@
+package com.ecomm.cart.outbox;
+
+import java.time.Instant;
+
+/**
+ * The customer's cart changed and is now at {@code version}. It carries no delta, consumers read the cart if they need
+ * its content, so only the latest event of a customer matters and {@code (customerId, version)} identifies it.
+ */
+public record CartChangedEvent(String customerId, long version, Instant changedAt) {
+}
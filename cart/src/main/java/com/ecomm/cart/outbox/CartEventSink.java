@@ -0,0 +1,15 @@
+package com.ecomm.cart.outbox;
+
+import java.util.List;
+
+/**
+ * Destination of the events relayed from the outbox, e.g. a message broker.
+ *
+ * <p>It is called inside the relay transaction and the events are only removed from the outbox once it returns, so
+ * delivery is at least once: an event may be delivered again after a failure and consumers should ignore versions
+ * they have already seen. Events of one customer are delivered in version order.
+ */
+public interface CartEventSink {
+
+    void publish(List<CartChangedEvent> events);
+}
@@ -0,0 +1,36 @@
+package com.ecomm.cart.outbox;
+
+import com.ecomm.cart.config.CartOutboxProperties;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Queues cart changed events in the {@code cart_outbox} table, on the transaction of the cart write, for
+ * {@link CartOutboxRelay} to publish once it committed. A rolled back write leaves no event behind.
+ */
+@Component
+@RequiredArgsConstructor
+public class CartOutbox {
+    private final JdbcTemplate jdbcTemplate;
+    private final CartOutboxProperties properties;
+
+    public void append(String customerId, long version) {
+        if (properties.enabled()) {
+            jdbcTemplate.update("INSERT INTO cart_outbox (customer_id, version) VALUES (?, ?)", customerId, version);
+        }
+    }
+
+    /**
+     * Queues an event at the current version of each of the given carts.
+     */
+    public void appendAll(String[] customerIds) {
+        if (properties.enabled()) {
+            jdbcTemplate.update("""
+                INSERT INTO cart_outbox (customer_id, version)
+                SELECT customer_id, version FROM cart_version WHERE customer_id = ANY(?)
+                """, (Object) customerIds);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.ecomm.cart.outbox;
+
+import com.ecomm.cart.config.CartOutboxProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Publishes the events queued by {@link CartOutbox} to the {@link CartEventSink}, in the background when
+ * {@code cart.outbox.enabled} and {@code cart.outbox.relay-enabled}.
+ *
+ * <p>Each batch is one transaction. It looks at the oldest {@code claimWindow} events, takes a transaction-scoped
+ * advisory lock on up to {@code batchSize} of their customers, skipping the customers another relay holds, and claims
+ * the oldest {@code batchSize} events of the customers it locked. It hands them to the sink and deletes them, so relays
+ * on several nodes share the work without waiting on each other and a large backlog never takes more advisory locks
+ * than a batch. Only the holder of a customer's advisory lock locks that customer's rows, which keeps each customer's
+ * events in order. Writes of one customer are serialized on its {@code cart_version} row before they queue their
+ * event, so id order is version order. Within a batch only the latest event of each customer is published, the others
+ * are compacted away.
+ */
+@Slf4j
+@Component
+public class CartOutboxRelay implements SmartLifecycle {
+    static final int ADVISORY_LOCK_CLASS = 0x63617274;
+
+    // The candidate customers are materialized in age order first, so the advisory locks are only taken while
+    // scanning them and stop at the customer limit
+    static final String CLAIM_BATCH = """
+        WITH candidate AS MATERIALIZED (
+            SELECT customer_id, min(id) AS first_id
+            FROM (SELECT id, customer_id FROM cart_outbox ORDER BY id LIMIT ?) oldest
+            GROUP BY customer_id
+            ORDER BY first_id
+        ), claimed AS MATERIALIZED (
+            SELECT customer_id
+            FROM candidate
+            WHERE pg_try_advisory_xact_lock(?, hashtext(customer_id))
+            LIMIT ?
+        )
+        SELECT id, customer_id, version, created_at, EXTRACT(EPOCH FROM clock_timestamp() - created_at) AS lag_seconds
+        FROM cart_outbox
+        WHERE customer_id IN (SELECT customer_id FROM claimed)
+        ORDER BY id
+        LIMIT ?
+        FOR UPDATE SKIP LOCKED
+        """;
+    private static final String DELETE_BATCH = "DELETE FROM cart_outbox WHERE id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final CartEventSink cartEventSink;
+    private final CartOutboxProperties properties;
+    private final Counter publishedCounter;
+    private final Counter compactedCounter;
+    private final Timer batchTimer;
+    private final Timer lagTimer;
+
+    private volatile boolean running;
+    private Thread relayThread;
+
+    public CartOutboxRelay(JdbcTemplate jdbcTemplate,
+                           TransactionOperations transactionOperations,
+                           CartEventSink cartEventSink,
+                           CartOutboxProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.cartEventSink = cartEventSink;
+        this.properties = properties;
+        this.publishedCounter = eventCounter(meterRegistry, "published");
+        this.compactedCounter = eventCounter(meterRegistry, "compacted");
+        this.batchTimer = Timer.builder("cart.outbox.batches")
+            .description("Relay transactions that published a non-empty batch")
+            .register(meterRegistry);
+        this.lagTimer = Timer.builder("cart.outbox.lag")
+            .description("Time from a cart write to the publication of its event")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        relayThread = new Thread(this::relayContinuously, "cart-outbox-relay");
+        relayThread.setDaemon(true);
+        relayThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (relayThread != null) {
+            relayThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return properties.enabled() && properties.relayEnabled();
+    }
+
+    /**
+     * Relays one batch and returns the number of outbox events it claimed, compacted ones included.
+     */
+    public int relayBatch() {
+        long startNanos = System.nanoTime();
+        int claimed = transactionOperations.execute(status -> {
+            List<OutboxEvent> outboxEvents = jdbcTemplate.query(CLAIM_BATCH,
+                (resultSet, rowNum) -> new OutboxEvent(
+                    resultSet.getLong("id"),
+                    new CartChangedEvent(resultSet.getString("customer_id"), resultSet.getLong("version"),
+                        resultSet.getTimestamp("created_at").toInstant()),
+                    resultSet.getDouble("lag_seconds")),
+                properties.claimWindow(), ADVISORY_LOCK_CLASS, properties.batchSize(), properties.batchSize());
+            if (outboxEvents.isEmpty()) {
+                return 0;
+            }
+            List<CartChangedEvent> events = compact(outboxEvents);
+            cartEventSink.publish(events);
+            jdbcTemplate.update(DELETE_BATCH, (Object) outboxEvents.stream().map(OutboxEvent::id).toArray(Long[]::new));
+
+            publishedCounter.increment(events.size());
+            compactedCounter.increment(outboxEvents.size() - events.size());
+            outboxEvents.forEach(outboxEvent ->
+                lagTimer.record(Duration.ofNanos((long) (outboxEvent.lagSeconds() * 1_000_000_000))));
+            return outboxEvents.size();
+        });
+        if (claimed > 0) {
+            batchTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+        return claimed;
+    }
+
+    /**
+     * Keeps the latest event of each customer, in the order of those latest events.
+     */
+    private static List<CartChangedEvent> compact(List<OutboxEvent> outboxEvents) {
+        Map<String, OutboxEvent> latestByCustomerId = new LinkedHashMap<>();
+        for (OutboxEvent outboxEvent : outboxEvents) {
+            latestByCustomerId.merge(outboxEvent.event().customerId(), outboxEvent,
+                (previous, next) -> next.event().version() > previous.event().version() ? next : previous);
+        }
+        List<OutboxEvent> latest = new ArrayList<>(latestByCustomerId.values());
+        latest.sort(Comparator.comparingLong(OutboxEvent::id));
+        return latest.stream().map(OutboxEvent::event).toList();
+    }
+
+    private void relayContinuously() {
+        while (running) {
+            Duration pause;
+            try {
+                pause = relayBatch() < properties.batchSize() ? properties.pollInterval() : Duration.ZERO;
+            } catch (RuntimeException e) {
+                log.warn("Cart outbox relay failed, retrying in {}", properties.retryDelay(), e);
+                pause = properties.retryDelay();
+            }
+            try {
+                Thread.sleep(pause.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static Counter eventCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("cart.outbox.events")
+            .description("Outbox events claimed by the relay, by what happened to them")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private record OutboxEvent(long id, CartChangedEvent event, double lagSeconds) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.ecomm.cart.outbox;
+
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sink used while no other {@link CartEventSink} is configured: relayed events are only logged, at debug level.
+ */
+@Slf4j
+public class LoggingCartEventSink implements CartEventSink {
+
+    @Override
+    public void publish(List<CartChangedEvent> events) {
+        events.forEach(event -> log.debug("Cart changed: {}", event));
+    }
+}
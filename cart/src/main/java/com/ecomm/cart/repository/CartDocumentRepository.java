@@ -0,0 +1,93 @@
+package com.ecomm.cart.repository;
+
+import com.ecomm.cart.model.CartDocument;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+
+/**
+ * Every write is a single statement rewriting the cart's jsonb object server side, so concurrent writes to one cart
+ * queue on its row lock instead of conflicting.
+ */
+public interface CartDocumentRepository extends JpaRepository<CartDocument, String> {
+    /**
+     * Creates the cart or adds the given quantity to one of its lines.
+     */
+    @Query(value = """
+        INSERT INTO cart_document (customer_id, items)
+        VALUES (:customerId, jsonb_build_object(CAST(:productId AS text), :quantity))
+        ON CONFLICT (customer_id)
+        DO UPDATE SET items = jsonb_set(
+            cart_document.items,
+            ARRAY[CAST(:productId AS text)],
+            to_jsonb(COALESCE(CAST(cart_document.items ->> CAST(:productId AS text) AS int), 0) + :quantity))
+        RETURNING *
+        """, nativeQuery = true)
+    @Transactional
+    CartDocument addQuantity(String customerId, Long productId, int quantity);
+
+    /**
+     * Creates the cart or overwrites the quantity of one of its lines.
+     */
+    @Query(value = """
+        INSERT INTO cart_document (customer_id, items)
+        VALUES (:customerId, jsonb_build_object(CAST(:productId AS text), :quantity))
+        ON CONFLICT (customer_id)
+        DO UPDATE SET items = jsonb_set(cart_document.items, ARRAY[CAST(:productId AS text)], to_jsonb(:quantity))
+        RETURNING *
+        """, nativeQuery = true)
+    @Transactional
+    CartDocument setQuantity(String customerId, Long productId, int quantity);
+
+    /**
+     * Creates the cart or adds each quantity to its line, in one statement whatever the number of lines.
+     */
+    @Query(value = """
+        INSERT INTO cart_document AS d (customer_id, items)
+        SELECT :customerId, jsonb_object_agg(r.product_id, r.quantity)
+        FROM unnest(CAST(:productIds AS bigint[]), CAST(:quantities AS int[])) AS r(product_id, quantity)
+        ON CONFLICT (customer_id)
+        DO UPDATE SET items = d.items || (
+            SELECT jsonb_object_agg(e.key, COALESCE(CAST(d.items ->> e.key AS int), 0) + CAST(e.value AS int))
+            FROM jsonb_each_text(EXCLUDED.items) AS e)
+        RETURNING *
+        """, nativeQuery = true)
+    @Transactional
+    CartDocument addQuantities(String customerId, Long[] productIds, Integer[] quantities);
+
+    /**
+     * Removes each quantity from its line and drops the lines that reach zero or below. Empty when the customer has
+     * no cart.
+     */
+    @Query(value = """
+        UPDATE cart_document d
+        SET items = (
+            SELECT COALESCE(jsonb_object_agg(e.key, CAST(e.value AS int) - COALESCE(r.quantity, 0)), CAST('{}' AS jsonb))
+            FROM jsonb_each_text(d.items) AS e
+            LEFT JOIN unnest(CAST(:productIds AS bigint[]), CAST(:quantities AS int[])) AS r(product_id, quantity)
+                ON e.key = CAST(r.product_id AS text)
+            WHERE r.quantity IS NULL OR CAST(e.value AS int) > r.quantity)
+        WHERE d.customer_id = :customerId
+        RETURNING *
+        """, nativeQuery = true)
+    @Transactional
+    Optional<CartDocument> removeQuantities(String customerId, Long[] productIds, Integer[] quantities);
+
+    @Modifying
+    @Query(value = """
+        UPDATE cart_document
+        SET items = items - CAST(:productId AS text)
+        WHERE customer_id = :customerId
+        """, nativeQuery = true)
+    @Transactional
+    void deleteLine(String customerId, Long productId);
+
+    @Modifying
+    @Query(value = "DELETE FROM cart_document WHERE customer_id = ANY(CAST(:customerIds AS varchar[]))",
+        nativeQuery = true)
+    @Transactional
+    void deleteByCustomerIds(String[] customerIds);
+}
@@ -2,35 +2,132 @@ package com.ecomm.cart.repository;
 
 import com.ecomm.cart.model.CartItem;
 import com.ecomm.cart.model.CartItemId;
+import com.ecomm.cart.viewmodel.CartItemGetVm;
 import jakarta.persistence.LockModeType;
 import jakarta.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
 
 public interface CartItemRepository extends JpaRepository<CartItem, CartItemId> {
     /**
-     * Retrieves a cart item for a specific customer and product, locking the record to prevent concurrent
-     * modifications
+     * Retrieves a cart item for a specific customer and product.
      */
-    // @Lock(LockModeType.PESSIMISTIC_WRITE)
-    // @QueryHints({@QueryHint(name = "jakarta.persistence.lock.timeout", value = "0")})
     @Query("SELECT c From CartItem c WHERE c.customerId = :customerId AND c.productId = :productId")
     Optional<CartItem> findByCustomerIdAndProductId(String customerId, Long productId);
 
     /**
-     * Retrieves a list of cart items for a specific customer, locking the records to prevent concurrent modifications.
+     * Retrieves a list of cart items for a specific customer. Concurrent changes are detected at flush time through
+     * the version column.
      */
-    // @Lock(LockModeType.PESSIMISTIC_WRITE)
-    // @QueryHints({@QueryHint(name = "jakarta.persistence.lock.timeout", value = "0")})
     @Query("SELECT c FROM CartItem c WHERE c.customerId = :customerId AND c.productId IN :productIds")
     List<CartItem> findByCustomerIdAndProductIdIn(String customerId, List<Long> productIds);
 
+    /**
+     * Retrieves a list of cart items for a specific customer, locking the records to prevent concurrent modifications
+     * until the transaction ends. Used by the {@code pessimistic} concurrency mode.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CartItem c WHERE c.customerId = :customerId AND c.productId IN :productIds")
+    List<CartItem> findForUpdateByCustomerIdAndProductIdIn(String customerId, List<Long> productIds);
+
     List<CartItem> findByCustomerId(String customerId);
 
+    /**
+     * Retrieves the customer's lines from the given product id on, in product id order. Seeks through the primary key
+     * index, so every page costs the same however deep it is. Lines are read straight into view models and never
+     * enter the persistence context.
+     */
+    @Query("""
+        SELECT new com.ecomm.cart.viewmodel.CartItemGetVm(c.customerId, c.productId, c.quantity)
+        FROM CartItem c
+        WHERE c.customerId = :customerId AND c.productId >= :fromProductId
+        ORDER BY c.productId
+        """)
+    List<CartItemGetVm> findPageByCustomerId(String customerId, Long fromProductId, Limit limit);
+
+    /**
+     * Streams the customer's lines in product id order through a server-side cursor, {@code fetchSize} rows at a time.
+     * Must be consumed and closed inside a transaction, otherwise the driver buffers the whole result.
+     */
+    @Query("""
+        SELECT new com.ecomm.cart.viewmodel.CartItemGetVm(c.customerId, c.productId, c.quantity)
+        FROM CartItem c
+        WHERE c.customerId = :customerId
+        ORDER BY c.productId
+        """)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<CartItemGetVm> streamByCustomerId(String customerId);
+
+    /**
+     * Inserts a cart item or adds the given quantity to the existing one in a single atomic statement, so concurrent
+     * adds of the same product never lose an update. Bumps the version so optimistic readers of the line notice.
+     */
+    @Query(value = """
+        INSERT INTO cart_item (customer_id, product_id, quantity)
+        VALUES (:customerId, :productId, :quantity)
+        ON CONFLICT (customer_id, product_id)
+        DO UPDATE SET quantity = cart_item.quantity + EXCLUDED.quantity, version = cart_item.version + 1
+        RETURNING *
+        """, nativeQuery = true)
+    @Transactional
+    CartItem upsertAddQuantity(String customerId, Long productId, int quantity);
+
+    /**
+     * Inserts a cart item or overwrites the quantity of the existing one in a single atomic statement.
+     */
+    @Query(value = """
+        INSERT INTO cart_item (customer_id, product_id, quantity)
+        VALUES (:customerId, :productId, :quantity)
+        ON CONFLICT (customer_id, product_id)
+        DO UPDATE SET quantity = EXCLUDED.quantity, version = cart_item.version + 1
+        RETURNING *
+        """, nativeQuery = true)
+    @Transactional
+    CartItem upsertSetQuantity(String customerId, Long productId, int quantity);
+
     void deleteByCustomerIdAndProductId(String customerId, Long productId);
+
+    /**
+     * Removes the given quantities from a customer's cart in a single set-based statement. Lines whose quantity would
+     * drop to zero or below are deleted, the others are decremented. Only the decremented lines are returned.
+     */
+    @Query(value = """
+        WITH request AS (
+            SELECT *
+            FROM unnest(CAST(:productIds AS bigint[]), CAST(:quantities AS int[])) AS r(product_id, quantity)
+        ),
+        deleted AS (
+            DELETE FROM cart_item c
+            USING request r
+            WHERE c.customer_id = :customerId AND c.product_id = r.product_id AND c.quantity <= r.quantity
+        )
+        UPDATE cart_item c
+        SET quantity = c.quantity - r.quantity, version = c.version + 1
+        FROM request r
+        WHERE c.customer_id = :customerId AND c.product_id = r.product_id AND c.quantity > r.quantity
+        RETURNING c.*
+        """, nativeQuery = true)
+    @Transactional
+    List<CartItem> decrementOrDelete(String customerId, Long[] productIds, Integer[] quantities);
+
+    /**
+     * Deletes every line of the given carts.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM cart_item WHERE customer_id = ANY(CAST(:customerIds AS varchar[]))", nativeQuery = true)
+    @Transactional
+    void deleteByCustomerIds(String[] customerIds);
 }
\ No newline at end of file
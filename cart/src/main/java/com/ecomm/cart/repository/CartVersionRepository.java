@@ -0,0 +1,30 @@
+package com.ecomm.cart.repository;
+
+import com.ecomm.cart.model.CartVersion;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+
+public interface CartVersionRepository extends JpaRepository<CartVersion, String> {
+    /**
+     * Returns the customer's current cart version, empty when the cart was never modified.
+     */
+    @Query("SELECT v.version FROM CartVersion v WHERE v.customerId = :customerId")
+    Optional<Long> findVersionByCustomerId(String customerId);
+
+    /**
+     * Bumps the customer's cart version and last-touched time in a single atomic statement and returns the new
+     * version. The row stays locked until the transaction ends, so call it last in a write.
+     */
+    @Query(value = """
+        INSERT INTO cart_version (customer_id, version, touched_at)
+        VALUES (:customerId, 1, now())
+        ON CONFLICT (customer_id)
+        DO UPDATE SET version = cart_version.version + 1, touched_at = EXCLUDED.touched_at
+        RETURNING version
+        """, nativeQuery = true)
+    @Transactional
+    long increment(String customerId);
+}
@@ -0,0 +1,94 @@
+package com.ecomm.cart.routing;
+
+import com.ecomm.cart.config.CartReplicaProperties;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Remembers which customers changed their cart within {@code cart.datasource.replica.read-your-writes-window}, so
+ * {@link ReplicaRoutingDataSource} keeps their reads on the primary until the replica they read from has replayed the
+ * change. A pin records the WAL position the primary had written up to when it was taken, and is taken again once the
+ * write commits, on the write's connection, so it covers the commit record: the replica is only trusted once
+ * {@link ReplicaLagMonitor} saw it replay past that position. A write that rolls back keeps the position it was first
+ * pinned at, which the replica soon reaches.
+ */
+@Component
+public class ReadYourWrites {
+    private static final String INSERT_LSN = "SELECT CAST(pg_current_wal_insert_lsn() - '0/0' AS bigint)";
+
+    private final CartReplicaProperties properties;
+    private final ObjectProvider<JdbcTemplate> jdbcTemplates;
+    private final Cache<String, Long> pinnedLsnByCustomerId;
+    private final long windowNanos;
+
+    private volatile EveryonePin everyonePin;
+
+    public ReadYourWrites(CartReplicaProperties properties, ObjectProvider<JdbcTemplate> jdbcTemplates) {
+        this.properties = properties;
+        this.jdbcTemplates = jdbcTemplates;
+        this.pinnedLsnByCustomerId = Caffeine.newBuilder()
+            .maximumSize(properties.maxPinnedCustomers())
+            .expireAfterWrite(properties.readYourWritesWindow())
+            .build();
+        this.windowNanos = properties.readYourWritesWindow().toNanos();
+    }
+
+    /**
+     * Pins the reads of {@code customerId} to the primary, again after the current transaction commits when there is
+     * one. A no-op when the replicas are disabled.
+     */
+    public void pin(String customerId) {
+        if (!properties.enabled()) {
+            return;
+        }
+        pinnedLsnByCustomerId.put(customerId, insertLsn());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pinnedLsnByCustomerId.put(customerId, insertLsn());
+                }
+            });
+        }
+    }
+
+    /**
+     * Pins the reads of every customer, for when changes may have been missed.
+     */
+    public void pinEveryone() {
+        if (properties.enabled()) {
+            everyonePin = new EveryonePin(insertLsn(), System.nanoTime());
+        }
+    }
+
+    /**
+     * Returns the WAL position a replica has to replay up to before it serves the reads of {@code customerId},
+     * {@code null} when they are not pinned anymore.
+     */
+    Long pinnedLsn(String customerId) {
+        Long pinnedLsn = customerId == null ? null : pinnedLsnByCustomerId.getIfPresent(customerId);
+        EveryonePin everyonePin = this.everyonePin;
+        if (everyonePin != null && System.nanoTime() - everyonePin.pinnedAt() < windowNanos
+            && (pinnedLsn == null || everyonePin.lsn() > pinnedLsn)) {
+            return everyonePin.lsn();
+        }
+        return pinnedLsn;
+    }
+
+    /**
+     * Reads the primary's WAL insert position, on the connection of the current transaction when there is one.
+     */
+    private long insertLsn() {
+        return jdbcTemplates.getObject().queryForObject(INSERT_LSN, Long.class);
+    }
+
+    private record EveryonePin(long lsn, long pinnedAt) {
+    }
+}
@@ -0,0 +1,147 @@
+package com.ecomm.cart.routing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.List;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Samples how far each replica is behind the primary every {@code cart.datasource.replica.lag-poll-interval}.
+ *
+ * <p>A sample reads the WAL position of the primary, then the position each replica has replayed up to. The difference
+ * is the lag, and the replayed position is what {@link ReadYourWrites} pins are compared with: a replica serves a
+ * pinned customer again once it replayed past the commit of their write, even while it trails newer writes of others.
+ * A replica that cannot be reached is left out of the routing until a later sample reaches it again. Standing in for a
+ * replica, a primary reports its own insert position, which every pin taken on it has reached.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements SmartLifecycle {
+    private static final String PRIMARY_LSN = "SELECT CAST(pg_current_wal_lsn() - '0/0' AS bigint)";
+    private static final String REPLAYED_LSN = """
+        SELECT CAST(CASE WHEN pg_is_in_recovery() THEN pg_last_wal_replay_lsn() ELSE pg_current_wal_insert_lsn() END
+            - '0/0' AS bigint)
+        """;
+
+    private final JdbcTemplate primary;
+    private final List<Replica> replicas;
+    private final Duration pollInterval;
+
+    private volatile boolean running;
+    private Thread pollThread;
+
+    public ReplicaLagMonitor(DataSource primary,
+                             List<? extends DataSource> replicas,
+                             Duration pollInterval,
+                             MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primary);
+        this.replicas = replicas.stream().map(replica -> new Replica(new JdbcTemplate(replica))).toList();
+        this.pollInterval = pollInterval;
+        for (int i = 0; i < this.replicas.size(); i++) {
+            Replica replica = this.replicas.get(i);
+            Gauge.builder("cart.datasource.replica.lag", replica, r -> r.lagBytes)
+                .description("WAL the replica has yet to replay, as of the last sample")
+                .baseUnit("bytes")
+                .tag("replica", String.valueOf(i))
+                .register(meterRegistry);
+            Gauge.builder("cart.datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                .description("Whether the replica answered the last sample")
+                .tag("replica", String.valueOf(i))
+                .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public void start() {
+        // Know which replicas answer before the first read is routed
+        pollQuietly();
+        running = true;
+        pollThread = new Thread(this::pollContinuously, "cart-replica-lag");
+        pollThread.setDaemon(true);
+        pollThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (pollThread != null) {
+            pollThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Takes one sample of the primary and every replica.
+     */
+    public void poll() {
+        long primaryLsn = primary.queryForObject(PRIMARY_LSN, Long.class);
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(i);
+            try {
+                long replayedLsn = replica.jdbcTemplate.queryForObject(REPLAYED_LSN, Long.class);
+                replica.lagBytes = Math.max(0, primaryLsn - replayedLsn);
+                replica.replayedLsn = replayedLsn;
+                replica.healthy = true;
+            } catch (RuntimeException e) {
+                if (replica.healthy) {
+                    log.warn("Replica {} is unreachable, reading from the others", i, e);
+                }
+                replica.healthy = false;
+            }
+        }
+    }
+
+    int replicaCount() {
+        return replicas.size();
+    }
+
+    boolean isHealthy(int replica) {
+        return replicas.get(replica).healthy;
+    }
+
+    /**
+     * Whether {@code replica} had replayed the WAL up to {@code lsn} as of the last sample.
+     */
+    boolean hasReplayed(int replica, long lsn) {
+        return replicas.get(replica).replayedLsn >= lsn;
+    }
+
+    private void pollContinuously() {
+        while (running) {
+            try {
+                Thread.sleep(pollInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            pollQuietly();
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.warn("Sampling the primary WAL position failed, retrying in {}", pollInterval, e);
+        }
+    }
+
+    private static final class Replica {
+        private final JdbcTemplate jdbcTemplate;
+        private volatile boolean healthy = true;
+        private volatile long replayedLsn = Long.MIN_VALUE;
+        private volatile long lagBytes;
+
+        private Replica(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.ecomm.cart.routing;
+
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs the reads of one customer's cart in a single read-only transaction, which {@link ReplicaRoutingDataSource}
+ * may serve from a replica. The customer is exposed to the routing for the duration of the read, so their reads stick
+ * to one replica and stay on the primary right after they changed their cart. Everything read in one call comes from
+ * the same database, so e.g. a cart version is never newer than the lines read with it.
+ *
+ * <p>What is kept longer than the read-your-writes window, like a cached snapshot, is read with
+ * {@link #readFromPrimary} instead: a replica that lags past the window would otherwise have its stale copy served
+ * until the next write evicts it.
+ */
+@Component
+public class ReplicaReads {
+    private static final ThreadLocal<String> CUSTOMER_ID = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> FROM_PRIMARY = new ThreadLocal<>();
+
+    private final TransactionOperations readOnlyTransactions;
+
+    @Autowired
+    public ReplicaReads(PlatformTransactionManager transactionManager) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        this.readOnlyTransactions = transactionTemplate;
+    }
+
+    public ReplicaReads(TransactionOperations readOnlyTransactions) {
+        this.readOnlyTransactions = readOnlyTransactions;
+    }
+
+    public <T> T read(String customerId, Supplier<T> read) {
+        return read(customerId, false, read);
+    }
+
+    /**
+     * Like {@link #read}, but always served by the primary.
+     */
+    public <T> T readFromPrimary(String customerId, Supplier<T> read) {
+        return read(customerId, true, read);
+    }
+
+    /**
+     * Returns the customer whose cart the current thread is reading, {@code null} outside {@link #read}.
+     */
+    static String currentCustomerId() {
+        return CUSTOMER_ID.get();
+    }
+
+    /**
+     * Whether the current thread is inside {@link #readFromPrimary}.
+     */
+    static boolean isReadingFromPrimary() {
+        return Boolean.TRUE.equals(FROM_PRIMARY.get());
+    }
+
+    private <T> T read(String customerId, boolean fromPrimary, Supplier<T> read) {
+        String previousCustomerId = CUSTOMER_ID.get();
+        Boolean previousFromPrimary = FROM_PRIMARY.get();
+        CUSTOMER_ID.set(customerId);
+        FROM_PRIMARY.set(fromPrimary);
+        try {
+            return readOnlyTransactions.execute(status -> read.get());
+        } finally {
+            restore(CUSTOMER_ID, previousCustomerId);
+            restore(FROM_PRIMARY, previousFromPrimary);
+        }
+    }
+
+    private static <T> void restore(ThreadLocal<T> threadLocal, T previous) {
+        if (previous == null) {
+            threadLocal.remove();
+        } else {
+            threadLocal.set(previous);
+        }
+    }
+}
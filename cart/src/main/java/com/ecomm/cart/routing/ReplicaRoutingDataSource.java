@@ -0,0 +1,117 @@
+package com.ecomm.cart.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hands out primary connections to read-write work and replica connections to read-only transactions. It has to sit
+ * behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so the connection is only fetched
+ * once the transaction is known to be read-only.
+ *
+ * <p>The reads of a customer, see {@link ReplicaReads}, always go to the same replica, so they never see their cart go
+ * back in time from one read to the next, and stay on the primary while {@link ReadYourWrites} pins them. Reads made
+ * through {@link ReplicaReads#readFromPrimary} always stay on the primary. Other read-only transactions take the
+ * replicas in turn. Replicas {@link ReplicaLagMonitor} cannot reach are skipped, and when none is left reads fall back
+ * to the primary. The replica pools are closed with this data source.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    private static final String PRIMARY = "primary";
+
+    private final List<HikariDataSource> replicas;
+    private final ReadYourWrites readYourWrites;
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Counter writeCounter;
+    private final Counter pinnedCounter;
+    private final Counter fromPrimaryCounter;
+    private final Counter unavailableCounter;
+    private final Counter replicaCounter;
+
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    List<HikariDataSource> replicas,
+                                    ReadYourWrites readYourWrites,
+                                    ReplicaLagMonitor replicaLagMonitor,
+                                    MeterRegistry meterRegistry) {
+        this.replicas = replicas;
+        this.readYourWrites = readYourWrites;
+        this.replicaLagMonitor = replicaLagMonitor;
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targetDataSources.put(i, replicas.get(i));
+        }
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        this.writeCounter = routingCounter(meterRegistry, "primary", "write");
+        this.pinnedCounter = routingCounter(meterRegistry, "primary", "pinned");
+        this.fromPrimaryCounter = routingCounter(meterRegistry, "primary", "from_primary");
+        this.unavailableCounter = routingCounter(meterRegistry, "primary", "no_replica");
+        this.replicaCounter = routingCounter(meterRegistry, "replica", "read_only");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writeCounter.increment();
+            return PRIMARY;
+        }
+        if (ReplicaReads.isReadingFromPrimary()) {
+            fromPrimaryCounter.increment();
+            return PRIMARY;
+        }
+        String customerId = ReplicaReads.currentCustomerId();
+        int replica = selectReplica(customerId);
+        if (replica < 0) {
+            unavailableCounter.increment();
+            return PRIMARY;
+        }
+        Long pinnedLsn = readYourWrites.pinnedLsn(customerId);
+        if (pinnedLsn != null && !replicaLagMonitor.hasReplayed(replica, pinnedLsn)) {
+            pinnedCounter.increment();
+            return PRIMARY;
+        }
+        replicaCounter.increment();
+        return replica;
+    }
+
+    public ReplicaLagMonitor getReplicaLagMonitor() {
+        return replicaLagMonitor;
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+    }
+
+    private int selectReplica(String customerId) {
+        int replicaCount = replicaLagMonitor.replicaCount();
+        int first = Math.floorMod(customerId != null ? customerId.hashCode() : nextReplica.getAndIncrement(),
+            replicaCount);
+        for (int i = 0; i < replicaCount; i++) {
+            int replica = (first + i) % replicaCount;
+            if (replicaLagMonitor.isHealthy(replica)) {
+                return replica;
+            }
+        }
+        return -1;
+    }
+
+    private static Counter routingCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("cart.datasource.routing")
+            .description("Connections handed out by the routing data source, by target and reason")
+            .tag("target", target)
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,103 @@
+package com.ecomm.cart.service;
+
+import com.ecomm.cart.config.CartDetailProperties;
+import com.ecomm.cart.viewmodel.CartDetailVm;
+import com.ecomm.cart.viewmodel.CartItemDetailVm;
+import com.ecomm.cart.viewmodel.CartItemGetVm;
+import com.ecomm.cart.viewmodel.ProductThumbnailVm;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Serves the cart joined with its product thumbnails so the storefront renders the mini-cart in one round trip.
+ *
+ * <p>Lookups run on virtual threads of their own rather than on Boot's {@code applicationTaskExecutor}, which MVC
+ * async requests share, and at most {@code maxConcurrentEnrichments} run at once. Past that bound a read does not
+ * queue its lookup, it answers with the cached thumbnails right away.
+ */
+@Slf4j
+@Service
+public class CartDetailService {
+    private final CartItemService cartItemService;
+    private final ProductService productService;
+    private final CartDetailProperties properties;
+    private final Executor enrichmentExecutor;
+    private final Semaphore enrichmentPermits;
+
+    public CartDetailService(CartItemService cartItemService,
+                             ProductService productService,
+                             CartDetailProperties properties) {
+        this.cartItemService = cartItemService;
+        this.productService = productService;
+        this.properties = properties;
+        this.enrichmentExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("cart-enrichment-", 0).factory());
+        this.enrichmentPermits = new Semaphore(properties.maxConcurrentEnrichments());
+    }
+
+    /**
+     * Fetches the thumbnails of all lines with one batched product lookup. When it does not finish within the
+     * enrichment deadline, answers with the thumbnails already cached and flags the result as partial; the lookup
+     * keeps running in the background and warms the cache for the next read.
+     */
+    public CartDetailVm getCartDetail() {
+        List<CartItemGetVm> cartItems = cartItemService.getCartItems();
+        if (cartItems.isEmpty()) {
+            return new CartDetailVm(List.of(), false);
+        }
+
+        List<Long> productIds = cartItems.stream().map(CartItemGetVm::productId).toList();
+        Map<Long, ProductThumbnailVm> thumbnails;
+        boolean partial = false;
+        if (!enrichmentPermits.tryAcquire()) {
+            log.debug("Too many product thumbnail lookups in flight, answering {} lines with cached ones",
+                productIds.size());
+            return toCartDetail(cartItems, productService.findCachedThumbnails(productIds), true);
+        }
+        try {
+            thumbnails = CompletableFuture
+                .supplyAsync(() -> {
+                    try {
+                        return productService.findThumbnails(productIds);
+                    } finally {
+                        enrichmentPermits.release();
+                    }
+                }, enrichmentExecutor)
+                .get(properties.enrichmentDeadline().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            log.debug("Product thumbnails of {} lines not loaded in time, answering with cached ones",
+                productIds.size(), e);
+            thumbnails = productService.findCachedThumbnails(productIds);
+            partial = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            thumbnails = productService.findCachedThumbnails(productIds);
+            partial = true;
+        }
+        return toCartDetail(cartItems, thumbnails, partial);
+    }
+
+    private static CartDetailVm toCartDetail(List<CartItemGetVm> cartItems,
+                                             Map<Long, ProductThumbnailVm> thumbnailByProductId,
+                                             boolean partial) {
+        List<CartItemDetailVm> items = cartItems.stream()
+            .map(cartItem -> CartItemDetailVm.builder()
+                .customerId(cartItem.customerId())
+                .productId(cartItem.productId())
+                .quantity(cartItem.quantity())
+                .product(thumbnailByProductId.get(cartItem.productId()))
+                .build())
+            .toList();
+        return new CartDetailVm(items, partial);
+    }
+}
@@ -1,133 +1,248 @@
 package com.ecomm.cart.service;
 
-import com.ecomm.cart.mapper.CartItemMapper;
-import com.ecomm.cart.model.CartItem;
-import com.ecomm.cart.repository.CartItemRepository;
+import com.ecomm.cart.cache.CartInvalidationBus;
+import com.ecomm.cart.cache.CartItemCache;
+import com.ecomm.cart.cache.CartSnapshot;
+import com.ecomm.cart.concurrency.CartWriteExecutor;
+import com.ecomm.cart.exception.BadRequestException;
+import com.ecomm.cart.exception.NotFoundException;
+import com.ecomm.cart.routing.ReplicaReads;
+import com.ecomm.cart.store.CartStore;
 import com.ecomm.cart.viewmodel.CartItemDeleteVm;
 import com.ecomm.cart.viewmodel.CartItemGetVm;
+import com.ecomm.cart.viewmodel.CartItemPageVm;
 import com.ecomm.cart.viewmodel.CartItemPostVm;
 import com.ecomm.cart.viewmodel.CartItemPutVm;
 import com.ecomm.cart.utils.Constants;
 
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import org.springframework.dao.PessimisticLockingFailureException;
-import org.springframework.data.crossstore.ChangeSetPersister.NotFoundException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CartItemService {
-    private final CartItemRepository cartItemRepository;
-    private final CartItemMapper cartItemMapper;
-
-    @Transactional
+    static final int MAX_PAGE_SIZE = 500;
+
+    private final CartStore cartStore;
+    private final CartItemCache cartItemCache;
+    private final CartInvalidationBus cartInvalidationBus;
+    private final ProductService productService;
+    private final CartWriteExecutor cartWriteExecutor;
+    private final CartVersionService cartVersionService;
+    private final ReplicaReads replicaReads;
+
+    /**
+     * Adds a product to the cart. Like every write below, it runs in its own transaction through
+     * {@link CartWriteExecutor}, which retries it when it loses a race with a concurrent write to the same cart,
+     * and bumps the cart version last.
+     */
     public CartItemGetVm addCartItem(CartItemPostVm cartItemPostVm) {
-        // validateProduct(cartItemPostVm.productId());
+        validateProduct(cartItemPostVm.productId());
 
         // String currentUserId = AuthenticationUtils.extractUserId();
         String currentUserId = "123";
-        CartItem cartItem = performAddCartItem(cartItemPostVm, currentUserId);
+        return cartWriteExecutor.execute(currentUserId, () -> {
+            CartItemGetVm cartItem =
+                cartStore.addQuantity(currentUserId, cartItemPostVm.productId(), cartItemPostVm.quantity());
+            cartVersionService.increment(currentUserId);
+            cartInvalidationBus.publish(currentUserId);
+            return cartItem;
+        });
+    }
 
-        return cartItemMapper.toGetVm(cartItem);
+    /**
+     * Adds several products at once. Duplicated product ids are merged first and validated with one product lookup,
+     * then the store applies all quantities in one go.
+     */
+    public List<CartItemGetVm> addCartItems(List<CartItemPostVm> cartItemPostVms) {
+        // String currentUserId = AuthenticationUtils.extractUserId();
+        String currentUserId = "123";
+        Map<Long, Integer> quantityByProductId =
+            mergeQuantitiesByProductId(cartItemPostVms, CartItemPostVm::productId, CartItemPostVm::quantity);
+        if (quantityByProductId.isEmpty()) {
+            return List.of();
+        }
+        validateProducts(quantityByProductId.keySet());
+
+        return cartWriteExecutor.execute(currentUserId, () -> {
+            List<CartItemGetVm> cartItems = cartStore.addQuantities(currentUserId, quantityByProductId);
+            cartVersionService.increment(currentUserId);
+            cartInvalidationBus.publish(currentUserId);
+            return cartItems;
+        });
     }
 
-    @Transactional
     public CartItemGetVm updateCartItem(Long productId, CartItemPutVm cartItemPutVm) {
-        // validateProduct(productId);
+        validateProduct(productId);
 
         // String currentUserId = AuthenticationUtils.extractUserId();
         String currentUserId = "123";
-        CartItem cartItem = cartItemMapper.toCartItem(currentUserId, productId, cartItemPutVm.quantity());
-
-        CartItem savedCartItem = cartItemRepository.save(cartItem);
-        return cartItemMapper.toGetVm(savedCartItem);
+        return cartWriteExecutor.execute(currentUserId, () -> {
+            CartItemGetVm cartItem = cartStore.setQuantity(currentUserId, productId, cartItemPutVm.quantity());
+            cartVersionService.increment(currentUserId);
+            cartInvalidationBus.publish(currentUserId);
+            return cartItem;
+        });
     }
 
     public List<CartItemGetVm> getCartItems() {
+        return getCart().items();
+    }
+
+    /**
+     * Returns the cart lines together with the cart version they were read at. A cache miss is loaded from the
+     * primary: the snapshot outlives the read-your-writes window, and only a write evicts it, so a stale replica copy
+     * would be served as current. The reads below go through {@link ReplicaReads}, which may serve them from a
+     * replica.
+     */
+    public CartSnapshot getCart() {
         // String currentUserId = AuthenticationUtils.extractUserId();
         String currentUserId = "123";
-        List<CartItem> cartItems = cartItemRepository.findByCustomerId(currentUserId);
-        return cartItemMapper.toGetVms(cartItems);        
+        return cartItemCache.get(currentUserId,
+            customerId -> replicaReads.readFromPrimary(customerId, () -> loadCart(customerId)));
     }
 
-    @Transactional
-    public List<CartItemGetVm> deleteOrAdjustCartItem(List<CartItemDeleteVm> cartItemDeleteVms) {
+    /**
+     * Returns the current cart version, from the cached snapshot when there is one, so a conditional read can be
+     * answered without loading the lines.
+     */
+    public long getCartVersion() {
+        // String currentUserId = AuthenticationUtils.extractUserId();
+        String currentUserId = "123";
+        CartSnapshot cart = cartItemCache.getIfPresent(currentUserId);
+        if (cart != null) {
+            return cart.version();
+        }
+        return replicaReads.read(currentUserId, () -> cartVersionService.getVersion(currentUserId));
+    }
 
-        Map<Long, CartItem> cartItemById = getCartItemsByProductIds(cartItemDeleteVms);
-
-        List<CartItem> cartItemsToDelete = new ArrayList<>();
-        List<CartItem> cartItemsToAdjust = new ArrayList<>();
-
-        for (CartItemDeleteVm cartItemDeleteVm : cartItemDeleteVms) {
-            Optional<CartItem> optionalCartItem = Optional.ofNullable(cartItemById.get(cartItemDeleteVm.productId()));
-            optionalCartItem.ifPresent(cartItem -> {
-                if (cartItem.getQuantity() <= cartItemDeleteVm.quantity()) {
-                    cartItemsToDelete.add(cartItem);
-                } else {
-                    cartItem.setQuantity(cartItem.getQuantity() - cartItemDeleteVm.quantity());
-                    cartItemsToAdjust.add(cartItem);
-                }
-            });
+    /**
+     * Returns up to {@code size} lines starting at {@code cursor}, or at the first line when it is null. Pages are
+     * read straight from the database rather than through the snapshot cache, so a large cart is never held whole.
+     * The size is clamped to {@value #MAX_PAGE_SIZE}.
+     */
+    public CartItemPageVm getCartItemPage(String cursor, int size) {
+        // String currentUserId = AuthenticationUtils.extractUserId();
+        String currentUserId = "123";
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        // One extra line tells whether there is a next page and where it starts
+        Long fromProductId = decodeCursor(cursor);
+        List<CartItemGetVm> cartItems = replicaReads.read(currentUserId,
+            () -> cartStore.findPage(currentUserId, fromProductId, Limit.of(pageSize + 1)));
+        if (cartItems.size() <= pageSize) {
+            return new CartItemPageVm(cartItems, null);
         }
+        return new CartItemPageVm(
+            cartItems.subList(0, pageSize), encodeCursor(cartItems.get(pageSize).productId()));
+    }
+
+    /**
+     * Hands the cart lines to {@code action} one at a time as they are read from the database, so memory stays flat
+     * whatever the cart size. The read-only transaction keeps the server-side cursor open until the last line.
+     */
+    public void forEachCartItem(Consumer<CartItemGetVm> action) {
+        // String currentUserId = AuthenticationUtils.extractUserId();
+        String currentUserId = "123";
+        replicaReads.read(currentUserId, () -> {
+            try (Stream<CartItemGetVm> cartItems = cartStore.stream(currentUserId)) {
+                cartItems.forEach(action);
+            }
+            return null;
+        });
+    }
 
-        cartItemRepository.deleteAll(cartItemsToDelete);
-        List<CartItem> updatedCartItems = cartItemRepository.saveAll(cartItemsToAdjust);
+    public List<CartItemGetVm> deleteOrAdjustCartItem(List<CartItemDeleteVm> cartItemDeleteVms) {
+        // String currentUserId = AuthenticationUtils.extractUserId();
+        String currentUserId = "123";
+        Map<Long, Integer> quantityByProductId =
+            mergeQuantitiesByProductId(cartItemDeleteVms, CartItemDeleteVm::productId, CartItemDeleteVm::quantity);
+        if (quantityByProductId.isEmpty()) {
+            return List.of();
+        }
 
-        return cartItemMapper.toGetVms(updatedCartItems);
+        return cartWriteExecutor.execute(currentUserId, () -> {
+            List<CartItemGetVm> adjustedCartItems = cartStore.removeQuantities(currentUserId, quantityByProductId);
+            cartVersionService.increment(currentUserId);
+            cartInvalidationBus.publish(currentUserId);
+            return adjustedCartItems;
+        });
     }
 
-    @Transactional
     public void deleteCartItem(Long productId) {
         // String currentUserId = AuthenticationUtils.extractUserId();
         String currentUserId = "123";
-        cartItemRepository.deleteByCustomerIdAndProductId(currentUserId, productId);
+        cartWriteExecutor.execute(currentUserId, () -> {
+            cartStore.delete(currentUserId, productId);
+            cartVersionService.increment(currentUserId);
+            cartInvalidationBus.publish(currentUserId);
+            return null;
+        });
     }
 
-    private CartItem performAddCartItem(CartItemPostVm cartItemPostVm, String currentUserId) {
-        return cartItemRepository.findByCustomerIdAndProductId(currentUserId, cartItemPostVm.productId())
-            .map(existingCartItem -> updateExistingCartItem(cartItemPostVm, existingCartItem))
-            .orElseGet(() -> createNewCartItem(cartItemPostVm, currentUserId));
+    /**
+     * Reads the version before the lines, in one read-only transaction: a write committing in between makes the
+     * snapshot newer than its version, which only costs the client one more full read, never a missed change.
+     */
+    private CartSnapshot loadCart(String customerId) {
+        long version = cartVersionService.getVersion(customerId);
+        return new CartSnapshot(version, cartStore.findAll(customerId));
     }
 
-    private CartItem createNewCartItem(CartItemPostVm cartItemPostVm, String currentUserId) {
-        CartItem cartItem = cartItemMapper.toCartItem(cartItemPostVm, currentUserId);
-        return cartItemRepository.save(cartItem);
+    /**
+     * Collapses duplicated product ids so each cart line is touched once with the summed quantity.
+     */
+    private static <T> Map<Long, Integer> mergeQuantitiesByProductId(List<T> cartItemVms,
+                                                                    Function<T, Long> productId,
+                                                                    Function<T, Integer> quantity) {
+        return cartItemVms
+            .stream()
+            .collect(Collectors.toMap(productId, quantity, Integer::sum, LinkedHashMap::new));
     }
 
-    private CartItem updateExistingCartItem(CartItemPostVm cartItemPostVm, CartItem existingCartItem) {
-        existingCartItem.setQuantity(existingCartItem.getQuantity() + cartItemPostVm.quantity());
-        return cartItemRepository.save(existingCartItem);
+    private static String encodeCursor(Long fromProductId) {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(fromProductId.toString().getBytes(StandardCharsets.US_ASCII));
     }
 
-    private Map<Long, CartItem> getCartItemsByProductIds(List<CartItemDeleteVm> cartItemDeleteVms) {
-        // String currentUserId = AuthenticationUtils.extractUserId();
-        String currentUserId = "123";
-        List<Long> productIds = cartItemDeleteVms
-            .stream()
-            .map(CartItemDeleteVm::productId)
-            .toList();
-        List<CartItem> cartItems = cartItemRepository.findByCustomerIdAndProductIdIn(currentUserId, productIds);
-        return cartItems
-            .stream()
-            .collect(Collectors.toMap(CartItem::getProductId, Function.identity()));
+    private static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(Constants.ErrorCode.INVALID_CART_CURSOR, cursor);
+        }
     }
 
-    // private void validateProduct(Long productId) {
-    //     if (!productService.existsById(productId)) {
-    //         throw new NotFoundException(Constants.ErrorCode.NOT_FOUND_PRODUCT, productId);
-    //     }
-    // }
+    private void validateProduct(Long productId) {
+        if (!productService.existsById(productId)) {
+            throw new NotFoundException(Constants.ErrorCode.NOT_FOUND_PRODUCT, productId);
+        }
+    }
+
+    private void validateProducts(Collection<Long> productIds) {
+        Set<Long> missingProductIds = productService.findMissingIds(productIds);
+        if (!missingProductIds.isEmpty()) {
+            throw new NotFoundException(Constants.ErrorCode.NOT_FOUND_PRODUCT, missingProductIds.toArray());
+        }
+    }
 
 }
\ No newline at end of file
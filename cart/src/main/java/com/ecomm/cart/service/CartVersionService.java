@@ -0,0 +1,53 @@
+package com.ecomm.cart.service;
+
+import com.ecomm.cart.outbox.CartOutbox;
+import com.ecomm.cart.repository.CartVersionRepository;
+
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Maintains the per-customer cart version behind the cart ETag.
+ */
+@Service
+@RequiredArgsConstructor
+public class CartVersionService {
+    static final String WRITTEN_VERSION_ATTRIBUTE = CartVersionService.class.getName() + ".writtenVersion";
+
+    private final CartVersionRepository cartVersionRepository;
+    private final CartOutbox cartOutbox;
+
+    public long getVersion(String customerId) {
+        return cartVersionRepository.findVersionByCustomerId(customerId).orElse(0L);
+    }
+
+    /**
+     * Bumps the version and queues the matching cart changed event in the current transaction, and records the version
+     * on the current request, if any, so the mutating endpoint can return it as the new ETag. A retried write simply
+     * overwrites the version of the failed attempt.
+     */
+    public long increment(String customerId) {
+        long version = cartVersionRepository.increment(customerId);
+        cartOutbox.append(customerId, version);
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null) {
+            requestAttributes.setAttribute(WRITTEN_VERSION_ATTRIBUTE, version, RequestAttributes.SCOPE_REQUEST);
+        }
+        return version;
+    }
+
+    /**
+     * Returns the version written by the current request, empty when it did not modify the cart.
+     */
+    public Optional<Long> getWrittenVersion() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(
+            (Long) requestAttributes.getAttribute(WRITTEN_VERSION_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST));
+    }
+}
@@ -0,0 +1,262 @@
+package com.ecomm.cart.service;
+
+import com.ecomm.cart.config.ProductServiceProperties;
+import com.ecomm.cart.viewmodel.ProductThumbnailVm;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Looks up product thumbnails, and so whether products exist, in front of the product service multi-get endpoint.
+ * <ul>
+ *     <li>thumbnails and unknown ids are kept in a positive and a negative cache, each bounded and with its own
+ *     TTL;</li>
+ *     <li>concurrent lookups of the same id share one pending future;</li>
+ *     <li>ids nobody is fetching yet are queued in a batch. The caller that opens a batch waits up to
+ *     {@code batchWindow} for others to join it, then sends it as one call; a batch reaching {@code maxBatchSize}
+ *     is sent right away by the caller that filled it.</li>
+ * </ul>
+ * Waiting uses a {@link ReentrantLock} rather than {@code synchronized} so virtual threads are not pinned.
+ */
+@Slf4j
+@Service
+public class ProductService {
+    static final String LIST_PRODUCTS_PATH = "/storefront/products/list-featured";
+    private static final ParameterizedTypeReference<List<ProductThumbnailVm>> PRODUCT_LIST =
+        new ParameterizedTypeReference<>() {
+        };
+
+    private final RestClient restClient;
+    private final ProductServiceProperties properties;
+    private final Cache<Long, ProductThumbnailVm> existingProducts;
+    private final Cache<Long, Boolean> missingProducts;
+    private final ConcurrentMap<Long, CompletableFuture<ProductThumbnailVm>> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock batchLock = new ReentrantLock();
+    private final Condition batchClosed = batchLock.newCondition();
+    private Batch openBatch;
+
+    public ProductService(RestClient restClient, ProductServiceProperties properties, MeterRegistry meterRegistry) {
+        this.restClient = restClient;
+        this.properties = properties;
+        this.existingProducts = CaffeineCacheMetrics.monitor(meterRegistry,
+            newCache(properties.existingTtl()), "existingProducts");
+        this.missingProducts = CaffeineCacheMetrics.monitor(meterRegistry,
+            newCache(properties.missingTtl()), "missingProducts");
+    }
+
+    public boolean existsById(Long productId) {
+        return findMissingIds(List.of(productId)).isEmpty();
+    }
+
+    /**
+     * Returns the given ids the product service does not know, in request order. Fails with a
+     * {@link org.springframework.web.client.RestClientException} when the product service cannot answer in time.
+     */
+    public Set<Long> findMissingIds(Collection<Long> productIds) {
+        if (!properties.validationEnabled()) {
+            return Set.of();
+        }
+        Map<Long, ProductThumbnailVm> thumbnails = findThumbnails(productIds);
+        return productIds.stream()
+            .filter(productId -> !thumbnails.containsKey(productId))
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Returns the thumbnails of the given products that exist, keyed by product id.
+     */
+    public Map<Long, ProductThumbnailVm> findThumbnails(Collection<Long> productIds) {
+        Map<Long, ProductThumbnailVm> thumbnails = new HashMap<>();
+        Map<Long, CompletableFuture<ProductThumbnailVm>> lookups = new LinkedHashMap<>();
+        List<Long> idsToFetch = new ArrayList<>();
+        for (Long productId : new LinkedHashSet<>(productIds)) {
+            ProductThumbnailVm thumbnail = existingProducts.getIfPresent(productId);
+            if (thumbnail != null) {
+                thumbnails.put(productId, thumbnail);
+                continue;
+            }
+            if (missingProducts.getIfPresent(productId) != null) {
+                continue;
+            }
+            CompletableFuture<ProductThumbnailVm> lookup = new CompletableFuture<>();
+            CompletableFuture<ProductThumbnailVm> pendingLookup = inFlight.putIfAbsent(productId, lookup);
+            if (pendingLookup == null) {
+                idsToFetch.add(productId);
+                lookups.put(productId, lookup);
+            } else {
+                lookups.put(productId, pendingLookup);
+            }
+        }
+        if (!idsToFetch.isEmpty()) {
+            enqueue(idsToFetch);
+        }
+
+        lookups.forEach((productId, lookup) -> {
+            ProductThumbnailVm thumbnail = await(productId, lookup);
+            if (thumbnail != null) {
+                thumbnails.put(productId, thumbnail);
+            }
+        });
+        return thumbnails;
+    }
+
+    /**
+     * Returns the cached thumbnails of the given products without calling the product service.
+     */
+    public Map<Long, ProductThumbnailVm> findCachedThumbnails(Collection<Long> productIds) {
+        return existingProducts.getAllPresent(productIds);
+    }
+
+    private void enqueue(List<Long> productIds) {
+        List<Batch> fullBatches = new ArrayList<>();
+        Batch ledBatch = null;
+        batchLock.lock();
+        try {
+            for (Long productId : productIds) {
+                if (openBatch == null) {
+                    openBatch = new Batch();
+                    ledBatch = openBatch;
+                }
+                openBatch.productIds.add(productId);
+                if (openBatch.productIds.size() >= properties.maxBatchSize()) {
+                    fullBatches.add(closeOpenBatch());
+                }
+            }
+        } finally {
+            batchLock.unlock();
+        }
+
+        fullBatches.forEach(this::send);
+        if (ledBatch != null) {
+            awaitWindowThenSend(ledBatch);
+        }
+    }
+
+    private void awaitWindowThenSend(Batch batch) {
+        boolean closedByLeader;
+        batchLock.lock();
+        try {
+            try {
+                long remainingNanos = properties.batchWindow().toNanos();
+                while (!batch.closed && remainingNanos > 0) {
+                    remainingNanos = batchClosed.awaitNanos(remainingNanos);
+                }
+            } catch (InterruptedException e) {
+                // Still send the batch below, other callers are waiting on it
+                Thread.currentThread().interrupt();
+            }
+            // A batch that filled up meanwhile was already sent by the caller that filled it
+            closedByLeader = !batch.closed;
+            if (closedByLeader) {
+                closeOpenBatch();
+            }
+        } finally {
+            batchLock.unlock();
+        }
+        if (closedByLeader) {
+            send(batch);
+        }
+    }
+
+    private Batch closeOpenBatch() {
+        Batch batch = openBatch;
+        batch.closed = true;
+        openBatch = null;
+        batchClosed.signalAll();
+        return batch;
+    }
+
+    private void send(Batch batch) {
+        Map<Long, ProductThumbnailVm> thumbnails;
+        try {
+            thumbnails = fetchThumbnails(batch.productIds);
+        } catch (Throwable ex) {
+            // Errors too must complete the lookups, later callers for these ids would otherwise wait on them
+            log.warn("Product lookup of {} ids failed", batch.productIds.size(), ex);
+            batch.productIds.forEach(productId -> inFlight.remove(productId).completeExceptionally(ex));
+            if (ex instanceof Error error) {
+                throw error;
+            }
+            return;
+        }
+        for (Long productId : batch.productIds) {
+            ProductThumbnailVm thumbnail = thumbnails.get(productId);
+            if (thumbnail != null) {
+                existingProducts.put(productId, thumbnail);
+            } else {
+                missingProducts.put(productId, Boolean.TRUE);
+            }
+            inFlight.remove(productId).complete(thumbnail);
+        }
+    }
+
+    private Map<Long, ProductThumbnailVm> fetchThumbnails(List<Long> productIds) {
+        List<ProductThumbnailVm> products = restClient.get()
+            .uri(UriComponentsBuilder.fromUriString(properties.baseUrl())
+                .path(LIST_PRODUCTS_PATH)
+                .queryParam("productId", productIds)
+                .build()
+                .toUri())
+            .retrieve()
+            .body(PRODUCT_LIST);
+        return products == null ? Map.of() : products.stream()
+            .collect(Collectors.toMap(ProductThumbnailVm::id, Function.identity(), (first, second) -> first));
+    }
+
+    private ProductThumbnailVm await(Long productId, CompletableFuture<ProductThumbnailVm> lookup) {
+        try {
+            return lookup.get(properties.lookupTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ResourceAccessException("Product lookup of " + productId + " failed: " + e.getCause());
+        } catch (TimeoutException e) {
+            throw new ResourceAccessException("Product lookup of " + productId + " timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Product lookup of " + productId + " interrupted");
+        }
+    }
+
+    private <V> Cache<Long, V> newCache(Duration ttl) {
+        return Caffeine.newBuilder()
+            .maximumSize(properties.cacheMaximumSize())
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
+
+    private static final class Batch {
+        private final List<Long> productIds = new ArrayList<>();
+        private boolean closed;
+    }
+}
@@ -0,0 +1,94 @@
+package com.ecomm.cart.store;
+
+import com.ecomm.cart.config.CartStoreProperties;
+import com.ecomm.cart.config.CartStoreProperties.Layout;
+
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Copies every cart from one layout to the other at startup when {@code cart.store.migration.target} is set, e.g.
+ * <pre>
+ * java -jar cart-exec.jar --cart.store.migration.target=document --spring.main.web-application-type=none
+ * </pre>
+ * Customers are walked in id order and copied in batches, each in its own transaction, with set-based statements.
+ * A copied cart replaces the target one entirely. The source layout is left untouched so the switch can be rolled
+ * back. Run it while no node writes carts, then restart the nodes with the new {@code cart.store.layout}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CartLayoutMigration implements ApplicationRunner {
+    private static final String NEXT_ITEM_CUSTOMERS = """
+        SELECT DISTINCT customer_id FROM cart_item WHERE customer_id > ? ORDER BY customer_id LIMIT ?
+        """;
+    private static final String NEXT_DOCUMENT_CUSTOMERS = """
+        SELECT customer_id FROM cart_document WHERE customer_id > ? ORDER BY customer_id LIMIT ?
+        """;
+    private static final String COPY_TO_DOCUMENTS = """
+        INSERT INTO cart_document (customer_id, items)
+        SELECT customer_id, jsonb_object_agg(product_id, quantity)
+        FROM cart_item
+        WHERE customer_id = ANY(?)
+        GROUP BY customer_id
+        ON CONFLICT (customer_id) DO UPDATE SET items = EXCLUDED.items
+        """;
+    private static final String CLEAR_ITEMS = "DELETE FROM cart_item WHERE customer_id = ANY(?)";
+    private static final String COPY_TO_ITEMS = """
+        INSERT INTO cart_item (customer_id, product_id, quantity)
+        SELECT d.customer_id, CAST(e.key AS bigint), CAST(e.value AS int)
+        FROM cart_document d, jsonb_each_text(d.items) AS e
+        WHERE d.customer_id = ANY(?)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final CartStoreProperties properties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (properties.migration().target() != null) {
+            migrate(properties.migration().target());
+        }
+    }
+
+    /**
+     * Returns the number of carts copied.
+     */
+    public long migrate(Layout target) {
+        int batchSize = properties.migration().batchSize();
+        String nextCustomers = target == Layout.DOCUMENT ? NEXT_ITEM_CUSTOMERS : NEXT_DOCUMENT_CUSTOMERS;
+        log.info("Copying carts into the {} layout, {} customers per batch", target, batchSize);
+
+        long copied = 0;
+        String lastCustomerId = "";
+        while (true) {
+            List<String> customerIds = jdbcTemplate.queryForList(nextCustomers, String.class, lastCustomerId, batchSize);
+            if (customerIds.isEmpty()) {
+                break;
+            }
+            String[] batch = customerIds.toArray(String[]::new);
+            transactionOperations.executeWithoutResult(status -> copy(target, batch));
+            copied += batch.length;
+            lastCustomerId = batch[batch.length - 1];
+            log.info("Copied {} carts, up to customer {}", copied, lastCustomerId);
+        }
+        log.info("Copied {} carts into the {} layout", copied, target);
+        return copied;
+    }
+
+    private void copy(Layout target, String[] customerIds) {
+        if (target == Layout.DOCUMENT) {
+            jdbcTemplate.update(COPY_TO_DOCUMENTS, (Object) customerIds);
+        } else {
+            jdbcTemplate.update(CLEAR_ITEMS, (Object) customerIds);
+            jdbcTemplate.update(COPY_TO_ITEMS, (Object) customerIds);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.ecomm.cart.store;
+
+import com.ecomm.cart.viewmodel.CartItemGetVm;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Limit;
+
+/**
+ * Persistence of the cart lines behind {@code CartItemService}, in the layout selected by {@code cart.store.layout}.
+ * Writes are called inside the transaction opened by {@code CartWriteExecutor}.
+ */
+public interface CartStore {
+
+    /**
+     * Adds the quantity to the line, creating it when missing, and returns the line.
+     */
+    CartItemGetVm addQuantity(String customerId, Long productId, int quantity);
+
+    /**
+     * Adds each quantity to its line, creating the missing ones, and returns the lines in the map's order.
+     */
+    List<CartItemGetVm> addQuantities(String customerId, Map<Long, Integer> quantityByProductId);
+
+    /**
+     * Overwrites the quantity of the line, creating it when missing, and returns the line.
+     */
+    CartItemGetVm setQuantity(String customerId, Long productId, int quantity);
+
+    /**
+     * Removes each quantity from its line, deleting the lines that drop to zero or below. Returns the lines that
+     * were decremented but kept.
+     */
+    List<CartItemGetVm> removeQuantities(String customerId, Map<Long, Integer> quantityByProductId);
+
+    void delete(String customerId, Long productId);
+
+    /**
+     * Deletes the given carts entirely.
+     */
+    void deleteCarts(String[] customerIds);
+
+    /**
+     * Returns every line of the cart.
+     */
+    List<CartItemGetVm> findAll(String customerId);
+
+    /**
+     * Returns the lines from the given product id on, in product id order.
+     */
+    List<CartItemGetVm> findPage(String customerId, Long fromProductId, Limit limit);
+
+    /**
+     * Streams the lines in product id order. Must be closed, and consumed inside a transaction.
+     */
+    Stream<CartItemGetVm> stream(String customerId);
+}
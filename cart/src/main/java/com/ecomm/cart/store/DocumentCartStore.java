@@ -0,0 +1,103 @@
+package com.ecomm.cart.store;
+
+import com.ecomm.cart.model.CartDocument;
+import com.ecomm.cart.repository.CartDocumentRepository;
+import com.ecomm.cart.viewmodel.CartItemGetVm;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+/**
+ * One {@code cart_document} row per cart. Every read is one primary key lookup and every write one atomic jsonb
+ * update of that row, so there are no per-line tuples or index entries to churn. Pages and streams are cut from the
+ * single document, which is bounded by the cart size anyway.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store.layout", havingValue = "document")
+@RequiredArgsConstructor
+public class DocumentCartStore implements CartStore {
+    private final CartDocumentRepository cartDocumentRepository;
+
+    @Override
+    public CartItemGetVm addQuantity(String customerId, Long productId, int quantity) {
+        return toGetVm(cartDocumentRepository.addQuantity(customerId, productId, quantity), productId);
+    }
+
+    @Override
+    public List<CartItemGetVm> addQuantities(String customerId, Map<Long, Integer> quantityByProductId) {
+        CartDocument cartDocument = cartDocumentRepository.addQuantities(
+            customerId,
+            quantityByProductId.keySet().toArray(Long[]::new),
+            quantityByProductId.values().toArray(Integer[]::new));
+        return quantityByProductId.keySet().stream()
+            .map(productId -> toGetVm(cartDocument, productId))
+            .toList();
+    }
+
+    @Override
+    public CartItemGetVm setQuantity(String customerId, Long productId, int quantity) {
+        return toGetVm(cartDocumentRepository.setQuantity(customerId, productId, quantity), productId);
+    }
+
+    @Override
+    public List<CartItemGetVm> removeQuantities(String customerId, Map<Long, Integer> quantityByProductId) {
+        return cartDocumentRepository
+            .removeQuantities(
+                customerId,
+                quantityByProductId.keySet().toArray(Long[]::new),
+                quantityByProductId.values().toArray(Integer[]::new))
+            .map(cartDocument -> quantityByProductId.keySet().stream()
+                .filter(productId -> cartDocument.getItems().containsKey(productId.toString()))
+                .map(productId -> toGetVm(cartDocument, productId))
+                .toList())
+            .orElse(List.of());
+    }
+
+    @Override
+    public void delete(String customerId, Long productId) {
+        cartDocumentRepository.deleteLine(customerId, productId);
+    }
+
+    @Override
+    public void deleteCarts(String[] customerIds) {
+        cartDocumentRepository.deleteByCustomerIds(customerIds);
+    }
+
+    @Override
+    public List<CartItemGetVm> findAll(String customerId) {
+        return cartDocumentRepository.findById(customerId)
+            .map(DocumentCartStore::toGetVms)
+            .orElse(List.of());
+    }
+
+    @Override
+    public List<CartItemGetVm> findPage(String customerId, Long fromProductId, Limit limit) {
+        return findAll(customerId).stream()
+            .filter(cartItem -> cartItem.productId() >= fromProductId)
+            .limit(limit.max())
+            .toList();
+    }
+
+    @Override
+    public Stream<CartItemGetVm> stream(String customerId) {
+        return findAll(customerId).stream();
+    }
+
+    private static CartItemGetVm toGetVm(CartDocument cartDocument, Long productId) {
+        return new CartItemGetVm(cartDocument.getCustomerId(), productId,
+            cartDocument.getItems().get(productId.toString()));
+    }
+
+    private static List<CartItemGetVm> toGetVms(CartDocument cartDocument) {
+        return cartDocument.getItems().entrySet().stream()
+            .map(item -> new CartItemGetVm(cartDocument.getCustomerId(), Long.valueOf(item.getKey()), item.getValue()))
+            .sorted(Comparator.comparing(CartItemGetVm::productId))
+            .toList();
+    }
+}
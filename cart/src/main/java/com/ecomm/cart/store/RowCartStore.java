@@ -0,0 +1,110 @@
+package com.ecomm.cart.store;
+
+import com.ecomm.cart.config.CartConcurrencyProperties;
+import com.ecomm.cart.mapper.CartItemMapper;
+import com.ecomm.cart.model.CartItem;
+import com.ecomm.cart.repository.CartItemRepository;
+import com.ecomm.cart.viewmodel.CartItemGetVm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+/**
+ * One {@code cart_item} row per line. Single-line writes are atomic upserts; batch adds go through the entities so
+ * concurrent changes are caught by the version column or, in {@code pessimistic} mode, by row locks.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store.layout", havingValue = "row", matchIfMissing = true)
+@RequiredArgsConstructor
+public class RowCartStore implements CartStore {
+    private final CartItemRepository cartItemRepository;
+    private final CartItemMapper cartItemMapper;
+    private final CartConcurrencyProperties concurrencyProperties;
+
+    @Override
+    public CartItemGetVm addQuantity(String customerId, Long productId, int quantity) {
+        return cartItemMapper.toGetVm(cartItemRepository.upsertAddQuantity(customerId, productId, quantity));
+    }
+
+    /**
+     * Loads the existing lines with one query; inserts and quantity updates are flushed together as JDBC batches at
+     * commit. A line changed concurrently fails the version check at commit and the whole batch is retried.
+     */
+    @Override
+    public List<CartItemGetVm> addQuantities(String customerId, Map<Long, Integer> quantityByProductId) {
+        Map<Long, CartItem> existingCartItemById =
+            findCartItemsToUpdate(customerId, List.copyOf(quantityByProductId.keySet()))
+                .stream()
+                .collect(Collectors.toMap(CartItem::getProductId, Function.identity()));
+
+        List<CartItem> cartItems = new ArrayList<>(quantityByProductId.size());
+        List<CartItem> newCartItems = new ArrayList<>();
+        quantityByProductId.forEach((productId, quantity) -> {
+            CartItem cartItem = existingCartItemById.get(productId);
+            if (cartItem != null) {
+                cartItem.setQuantity(cartItem.getQuantity() + quantity);
+            } else {
+                cartItem = cartItemMapper.toCartItem(customerId, productId, quantity);
+                newCartItems.add(cartItem);
+            }
+            cartItems.add(cartItem);
+        });
+        cartItemRepository.saveAll(newCartItems);
+
+        return cartItemMapper.toGetVms(cartItems);
+    }
+
+    @Override
+    public CartItemGetVm setQuantity(String customerId, Long productId, int quantity) {
+        return cartItemMapper.toGetVm(cartItemRepository.upsertSetQuantity(customerId, productId, quantity));
+    }
+
+    @Override
+    public List<CartItemGetVm> removeQuantities(String customerId, Map<Long, Integer> quantityByProductId) {
+        List<CartItem> adjustedCartItems = cartItemRepository.decrementOrDelete(
+            customerId,
+            quantityByProductId.keySet().toArray(Long[]::new),
+            quantityByProductId.values().toArray(Integer[]::new));
+        return cartItemMapper.toGetVms(adjustedCartItems);
+    }
+
+    @Override
+    public void delete(String customerId, Long productId) {
+        cartItemRepository.deleteByCustomerIdAndProductId(customerId, productId);
+    }
+
+    @Override
+    public void deleteCarts(String[] customerIds) {
+        cartItemRepository.deleteByCustomerIds(customerIds);
+    }
+
+    @Override
+    public List<CartItemGetVm> findAll(String customerId) {
+        return cartItemMapper.toGetVms(cartItemRepository.findByCustomerId(customerId));
+    }
+
+    @Override
+    public List<CartItemGetVm> findPage(String customerId, Long fromProductId, Limit limit) {
+        return cartItemRepository.findPageByCustomerId(customerId, fromProductId, limit);
+    }
+
+    @Override
+    public Stream<CartItemGetVm> stream(String customerId) {
+        return cartItemRepository.streamByCustomerId(customerId);
+    }
+
+    private List<CartItem> findCartItemsToUpdate(String customerId, List<Long> productIds) {
+        if (concurrencyProperties.mode() == CartConcurrencyProperties.Mode.PESSIMISTIC) {
+            return cartItemRepository.findForUpdateByCustomerIdAndProductIdIn(customerId, productIds);
+        }
+        return cartItemRepository.findByCustomerIdAndProductIdIn(customerId, productIds);
+    }
+}
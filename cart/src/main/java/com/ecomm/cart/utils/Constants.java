@@ -9,5 +9,6 @@ public final class Constants {
         public static final String NON_EXISTING_CART_ITEM = "NON_EXISTING_CART_ITEM";
         public static final String ADD_CART_ITEM_FAILED = "ADD_CART_ITEM_FAILED";
         public static final String DUPLICATED_CART_ITEMS_TO_DELETE = "DUPLICATED_CART_ITEMS_TO_DELETE";
+        public static final String INVALID_CART_CURSOR = "INVALID_CART_CURSOR";
     }
 }
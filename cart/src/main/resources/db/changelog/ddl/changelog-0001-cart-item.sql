@@ -0,0 +1,42 @@
+--liquibase formatted sql
+
+--changeset ecomm:cart-item-rename-unpartitioned
+--comment: Databases whose schema came from Hibernate's ddl-auto have a plain cart_item table, set it aside so it can be re-created partitioned
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM pg_class WHERE oid = to_regclass('cart_item') AND relkind = 'r'
+ALTER TABLE cart_item RENAME TO cart_item_legacy;
+ALTER INDEX IF EXISTS cart_item_pkey RENAME TO cart_item_legacy_pkey;
+
+--changeset ecomm:cart-item-create-partitioned splitStatements:false
+--comment: Hash partitioned by customer: every cart query filters on customer_id, so it is pruned down to a single partition
+CREATE TABLE cart_item (
+    customer_id varchar(255) NOT NULL,
+    product_id  bigint       NOT NULL,
+    quantity    integer      NOT NULL,
+    version     integer      NOT NULL DEFAULT 0,
+    CONSTRAINT cart_item_pkey PRIMARY KEY (customer_id, product_id)
+) PARTITION BY HASH (customer_id);
+
+-- Storage parameters only exist on the partitions. A fillfactor of 80 leaves room on each page so that rewriting
+-- quantity and version, which no index covers, stays a heap-only tuple (HOT) update instead of bloating the indexes.
+DO $$
+BEGIN
+    FOR remainder IN 0..15 LOOP
+        EXECUTE format(
+            'CREATE TABLE cart_item_p%s PARTITION OF cart_item FOR VALUES WITH (MODULUS 16, REMAINDER %s) WITH (fillfactor = 80)',
+            remainder, remainder);
+    END LOOP;
+END
+$$;
+
+--changeset ecomm:cart-item-product-id-index
+--comment: Finds the carts holding a product without visiting every line; customer_id is included for index-only scans, quantity deliberately is not so its updates stay HOT
+CREATE INDEX cart_item_product_id_idx ON cart_item (product_id) INCLUDE (customer_id);
+
+--changeset ecomm:cart-item-copy-unpartitioned
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM pg_class WHERE oid = to_regclass('cart_item_legacy')
+INSERT INTO cart_item (customer_id, product_id, quantity, version)
+SELECT customer_id, product_id, quantity, COALESCE(version, 0)
+FROM cart_item_legacy;
+DROP TABLE cart_item_legacy;
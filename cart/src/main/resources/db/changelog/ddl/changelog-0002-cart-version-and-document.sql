@@ -0,0 +1,18 @@
+--liquibase formatted sql
+
+--changeset ecomm:cart-version-create
+--comment: Bumped by every cart write; the version is not indexed, so with free space left on the page each bump is a HOT update
+CREATE TABLE IF NOT EXISTS cart_version (
+    customer_id varchar(255) NOT NULL,
+    version     bigint       NOT NULL,
+    CONSTRAINT cart_version_pkey PRIMARY KEY (customer_id)
+);
+ALTER TABLE cart_version SET (fillfactor = 80);
+
+--changeset ecomm:cart-document-create
+CREATE TABLE IF NOT EXISTS cart_document (
+    customer_id varchar(255) NOT NULL,
+    items       jsonb        NOT NULL DEFAULT '{}',
+    CONSTRAINT cart_document_pkey PRIMARY KEY (customer_id)
+);
+ALTER TABLE cart_document SET (fillfactor = 80);
@@ -0,0 +1,14 @@
+--liquibase formatted sql
+
+--changeset ecomm:cart-version-touched-at
+--comment: Last cart write, read by the abandoned cart purger. Deliberately not indexed so the bump on every write stays a HOT update; the purger walks the primary key instead
+ALTER TABLE cart_version ADD COLUMN touched_at timestamptz DEFAULT now();
+ALTER TABLE cart_version ALTER COLUMN touched_at DROP DEFAULT;
+
+--changeset ecomm:cart-version-backfill
+--comment: Carts written before versions existed get one, so they can expire too
+INSERT INTO cart_version (customer_id, version, touched_at)
+SELECT customer_id, 0, now() FROM cart_item
+UNION
+SELECT customer_id, 0, now() FROM cart_document
+ON CONFLICT (customer_id) DO NOTHING;
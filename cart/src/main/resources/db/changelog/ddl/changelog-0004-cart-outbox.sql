@@ -0,0 +1,11 @@
+--liquibase formatted sql
+
+--changeset ecomm:cart-outbox-create
+--comment: Cart changed events written in the transaction of each cart write and drained by CartOutboxRelay. Rows are deleted as soon as they are relayed, so autovacuum is told to keep up with the churn rather than wait for a share of the table
+CREATE TABLE cart_outbox (
+    id          bigint       GENERATED ALWAYS AS IDENTITY,
+    customer_id varchar(255) NOT NULL,
+    version     bigint       NOT NULL,
+    created_at  timestamptz  NOT NULL DEFAULT now(),
+    CONSTRAINT cart_outbox_pkey PRIMARY KEY (id)
+) WITH (autovacuum_vacuum_scale_factor = 0, autovacuum_vacuum_threshold = 1000);
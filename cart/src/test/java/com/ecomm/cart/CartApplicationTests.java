@@ -1,13 +0,0 @@
-package com.ecomm.cart;
-
-import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
-
-@SpringBootTest
-class CartApplicationTests {
-
-	@Test
-	void contextLoads() {
-	}
-
-}
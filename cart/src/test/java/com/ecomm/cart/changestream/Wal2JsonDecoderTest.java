@@ -0,0 +1,78 @@
+package com.ecomm.cart.changestream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+
+class Wal2JsonDecoderTest {
+    private static final long LSN_SAMPLE = 42L;
+
+    private final Wal2JsonDecoder decoder = new Wal2JsonDecoder(new ObjectMapper());
+
+    @Test
+    void testDecode_whenInsert_shouldReturnInsertEventFromColumns() {
+        String payload = """
+            {"action":"I","schema":"public","table":"cart_item","columns":[
+              {"name":"customer_id","type":"character varying(255)","value":"123"},
+              {"name":"product_id","type":"bigint","value":1001},
+              {"name":"quantity","type":"integer","value":2}]}
+            """;
+
+        Wal2JsonDecoder.Wal2JsonMessage message = decoder.decode(payload, LSN_SAMPLE);
+
+        assertThat(message.isCommit()).isFalse();
+        assertThat(message.event())
+            .isEqualTo(new CartChangeEvent(CartChangeEvent.Type.INSERT, "123", 1001L, 2, LSN_SAMPLE));
+    }
+
+    @Test
+    void testDecode_whenUpdate_shouldReturnUpdateEventWithNewQuantity() {
+        String payload = """
+            {"action":"U","schema":"public","table":"cart_item","columns":[
+              {"name":"customer_id","type":"character varying(255)","value":"123"},
+              {"name":"product_id","type":"bigint","value":1001},
+              {"name":"quantity","type":"integer","value":5}],
+             "identity":[
+              {"name":"customer_id","type":"character varying(255)","value":"123"},
+              {"name":"product_id","type":"bigint","value":1001}]}
+            """;
+
+        Wal2JsonDecoder.Wal2JsonMessage message = decoder.decode(payload, LSN_SAMPLE);
+
+        assertThat(message.event())
+            .isEqualTo(new CartChangeEvent(CartChangeEvent.Type.UPDATE, "123", 1001L, 5, LSN_SAMPLE));
+    }
+
+    @Test
+    void testDecode_whenDelete_shouldReturnDeleteEventFromIdentity() {
+        String payload = """
+            {"action":"D","schema":"public","table":"cart_item","identity":[
+              {"name":"customer_id","type":"character varying(255)","value":"123"},
+              {"name":"product_id","type":"bigint","value":1001}]}
+            """;
+
+        Wal2JsonDecoder.Wal2JsonMessage message = decoder.decode(payload, LSN_SAMPLE);
+
+        assertThat(message.event())
+            .isEqualTo(new CartChangeEvent(CartChangeEvent.Type.DELETE, "123", 1001L, null, LSN_SAMPLE));
+    }
+
+    @Test
+    void testDecode_whenTransactionBoundary_shouldReturnNoEvent() {
+        Wal2JsonDecoder.Wal2JsonMessage begin = decoder.decode("{\"action\":\"B\"}", LSN_SAMPLE);
+        Wal2JsonDecoder.Wal2JsonMessage commit = decoder.decode("{\"action\":\"C\"}", LSN_SAMPLE);
+
+        assertThat(begin.event()).isNull();
+        assertThat(begin.isCommit()).isFalse();
+        assertThat(commit.event()).isNull();
+        assertThat(commit.isCommit()).isTrue();
+    }
+
+    @Test
+    void testDecode_whenPayloadIsNotJson_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> decoder.decode("not-json", LSN_SAMPLE));
+    }
+}
@@ -0,0 +1,148 @@
+package com.ecomm.cart.concurrency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.ecomm.cart.config.CartConcurrencyProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+class CartWriteExecutorTest {
+    private static final String CUSTOMER_ID_SAMPLE = "123";
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger attempts;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        attempts = new AtomicInteger();
+    }
+
+    @Test
+    void testExecute_whenWriteConflictsOnce_shouldRetryAndReturnResult() {
+        CartWriteExecutor executor = executor(CartConcurrencyProperties.Mode.OPTIMISTIC, 3, 10);
+
+        String result = executor.execute(CUSTOMER_ID_SAMPLE, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new ObjectOptimisticLockingFailureException("CartItem", CUSTOMER_ID_SAMPLE);
+            }
+            return "saved";
+        });
+
+        assertEquals("saved", result);
+        assertEquals(2, attempts.get());
+        assertEquals(1, retries("retried"));
+    }
+
+    @Test
+    void testExecute_whenWriteFailsWithoutConflict_shouldNotRetry() {
+        CartWriteExecutor executor = executor(CartConcurrencyProperties.Mode.OPTIMISTIC, 3, 10);
+
+        assertThrows(IllegalStateException.class, () -> executor.execute(CUSTOMER_ID_SAMPLE, () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("not a conflict");
+        }));
+
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void testExecute_whenWriteKeepsConflicting_shouldGiveUpAfterMaxAttempts() {
+        CartWriteExecutor executor = executor(CartConcurrencyProperties.Mode.OPTIMISTIC, 3, 10);
+
+        assertThrows(CannotAcquireLockException.class, () -> executor.execute(CUSTOMER_ID_SAMPLE, () -> {
+            attempts.incrementAndGet();
+            throw new CannotAcquireLockException("lock timeout");
+        }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(1, retries("attempts_exhausted"));
+    }
+
+    @Test
+    void testExecute_whenRetryBudgetIsSpent_shouldFailWithoutRetrying() {
+        CartWriteExecutor executor = executor(CartConcurrencyProperties.Mode.OPTIMISTIC, 5, 1);
+
+        assertThrows(CannotAcquireLockException.class, () -> executor.execute(CUSTOMER_ID_SAMPLE, () -> {
+            attempts.incrementAndGet();
+            throw new CannotAcquireLockException("lock timeout");
+        }));
+
+        assertEquals(2, attempts.get());
+        assertEquals(1, retries("budget_exhausted"));
+    }
+
+    @Test
+    void testExecute_whenInsertHitsUniqueViolation_shouldRetry() {
+        CartWriteExecutor executor = executor(CartConcurrencyProperties.Mode.OPTIMISTIC, 3, 10);
+
+        executor.execute(CUSTOMER_ID_SAMPLE, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new DataIntegrityViolationException("duplicate key",
+                    new SQLException("duplicate key value violates unique constraint", "23505"));
+            }
+            return null;
+        });
+
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void testExecute_whenStripedMode_shouldSerializeWritesOfSameCustomer() throws Exception {
+        CartWriteExecutor executor = executor(CartConcurrencyProperties.Mode.STRIPED, 3, 10);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<Future<?>> writes = new ArrayList<>();
+        try (ExecutorService writers = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                writes.add(writers.submit(() -> executor.execute(CUSTOMER_ID_SAMPLE, () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleep(Duration.ofMillis(10));
+                    running.decrementAndGet();
+                    return null;
+                })));
+            }
+            for (Future<?> write : writes) {
+                write.get();
+            }
+        }
+
+        assertThat(maxRunning).hasValue(1);
+    }
+
+    private CartWriteExecutor executor(CartConcurrencyProperties.Mode mode, int maxAttempts, int retryBudgetReserve) {
+        CartConcurrencyProperties properties = new CartConcurrencyProperties(mode, 16, Duration.ofSeconds(5),
+            maxAttempts, Duration.ofMillis(1), Duration.ofMillis(5), 0, retryBudgetReserve);
+        return new CartWriteExecutor(TransactionOperations.withoutTransaction(), properties, meterRegistry);
+    }
+
+    private double retries(String outcome) {
+        return meterRegistry.get("cart.write.retries").tag("outcome", outcome).counter().count();
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
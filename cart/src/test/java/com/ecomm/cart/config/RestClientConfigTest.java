@@ -0,0 +1,178 @@
+package com.ecomm.cart.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Drives the downstream RestClient against a local stub server whose /slow endpoint answers after a delay and whose
+ * /failing endpoint answers 503.
+ */
+class RestClientConfigTest {
+    private static final Duration SLOW_RESPONSE = Duration.ofMillis(500);
+
+    private final AtomicInteger receivedRequests = new AtomicInteger();
+    private final RestClientConfig restClientConfig = new RestClientConfig();
+    private SimpleMeterRegistry meterRegistry;
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        meterRegistry = new SimpleMeterRegistry();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/slow", exchange -> {
+            sleep(SLOW_RESPONSE);
+            respond(exchange, 200);
+        });
+        server.createContext("/failing", exchange -> respond(exchange, 503));
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @ParameterizedTest
+    @EnumSource(HttpClientProperties.Transport.class)
+    void testRestClient_whenDownstreamIsSlowerThanReadTimeout_shouldFailWithinTimeout(
+        HttpClientProperties.Transport transport) {
+        RestClient restClient = restClient(properties(transport, Duration.ofMillis(100), 10, 10));
+
+        long start = System.nanoTime();
+        assertThrows(ResourceAccessException.class, () -> get(restClient, "/slow"));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(SLOW_RESPONSE);
+    }
+
+    @Test
+    void testRestClient_whenBulkheadIsFull_shouldRejectExtraCallsWithoutSendingThem() throws Exception {
+        RestClient restClient = restClient(properties(HttpClientProperties.Transport.APACHE, Duration.ofSeconds(2),
+            2, 10));
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        List<Future<String>> calls = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            calls.add(callers.submit(() -> {
+                start.await();
+                return get(restClient, "/slow");
+            }));
+        }
+        start.countDown();
+        Thread.sleep(SLOW_RESPONSE.toMillis() / 2);
+
+        ResourceAccessException rejected =
+            assertThrows(ResourceAccessException.class, () -> get(restClient, "/slow"));
+
+        assertThat(rejected).hasMessageContaining("Bulkhead full");
+        for (Future<String> call : calls) {
+            assertThat(call.get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+        }
+        assertThat(receivedRequests).hasValue(2);
+        callers.shutdown();
+    }
+
+    @Test
+    void testRestClient_whenDownstreamKeepsFailing_shouldOpenBreakerAndFailFast() {
+        RestClient restClient = restClient(properties(HttpClientProperties.Transport.APACHE, Duration.ofSeconds(2),
+            10, 4));
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpServerErrorException.class, () -> get(restClient, "/failing"));
+        }
+        ResourceAccessException rejected =
+            assertThrows(ResourceAccessException.class, () -> get(restClient, "/failing"));
+
+        assertThat(rejected).hasMessageContaining("Circuit breaker open");
+        assertThat(receivedRequests).hasValue(4);
+        assertThat(meterRegistry.get("resilience4j.circuitbreaker.state").tag("state", "open").gauge().value())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void testRestClient_whenApacheTransport_shouldPublishPoolMetrics() {
+        RestClient restClient = restClient(properties(HttpClientProperties.Transport.APACHE, Duration.ofSeconds(2),
+            10, 10));
+
+        get(restClient, "/slow");
+
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.max").gauge().value()).isEqualTo(20);
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.route.max.default").gauge().value())
+            .isEqualTo(5);
+    }
+
+    private RestClient restClient(HttpClientProperties properties) {
+        CircuitBreakerRegistry circuitBreakers = restClientConfig.downstreamCircuitBreakers(properties, meterRegistry);
+        BulkheadRegistry bulkheads = restClientConfig.downstreamBulkheads(properties, meterRegistry);
+        return restClientConfig.restClient(
+            restClientConfig.downstreamRequestFactory(properties, meterRegistry, false), circuitBreakers, bulkheads);
+    }
+
+    private String get(RestClient restClient, String path) {
+        return restClient.get()
+            .uri("http://localhost:" + server.getAddress().getPort() + path)
+            .retrieve()
+            .body(String.class);
+    }
+
+    private static HttpClientProperties properties(HttpClientProperties.Transport transport, Duration readTimeout,
+                                                   int maxConcurrentCalls, int slidingWindowSize) {
+        return new HttpClientProperties(
+            transport,
+            Duration.ofMillis(500),
+            readTimeout,
+            new HttpClientProperties.Pool(20, 5, Duration.ofMillis(250), Duration.ofSeconds(30)),
+            new HttpClientProperties.Bulkhead(maxConcurrentCalls, Duration.ZERO),
+            new HttpClientProperties.CircuitBreaker(50, Duration.ofSeconds(1), 100, slidingWindowSize,
+                slidingWindowSize, Duration.ofSeconds(30), 1));
+    }
+
+    private void respond(HttpExchange exchange, int status) throws IOException {
+        receivedRequests.incrementAndGet();
+        byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -3,11 +3,15 @@ package com.ecomm.cart.controller;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -15,20 +19,34 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import com.ecomm.cart.cache.CartSnapshot;
+import com.ecomm.cart.service.CartDetailService;
 import com.ecomm.cart.service.CartItemService;
+import com.ecomm.cart.service.CartVersionService;
+import com.ecomm.cart.viewmodel.CartDetailVm;
+import com.ecomm.cart.viewmodel.CartItemDetailVm;
 import com.ecomm.cart.viewmodel.CartItemDeleteVm;
 import com.ecomm.cart.viewmodel.CartItemGetVm;
+import com.ecomm.cart.viewmodel.CartItemPageVm;
 import com.ecomm.cart.viewmodel.CartItemPostVm;
 import com.ecomm.cart.viewmodel.CartItemPutVm;
+import com.ecomm.cart.viewmodel.ProductThumbnailVm;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
@@ -38,6 +56,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 public class CartItemControllerTest {
     private static final Long PRODUCT_ID_SAMPLE = 1L;
     private static final String CUSTOMER_ID_SAMPLE = "customerId";
+    private static final MediaType CBOR = MediaType.APPLICATION_CBOR;
 
     @Autowired
     private MockMvc mockMvc;
@@ -45,6 +64,12 @@ public class CartItemControllerTest {
     @MockBean
     private CartItemService cartItemService;
 
+    @MockBean
+    private CartDetailService cartDetailService;
+
+    @MockBean
+    private CartVersionService cartVersionService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -110,6 +135,47 @@ public class CartItemControllerTest {
         }
     }
 
+    @Nested
+    class AddCartItemsTest {
+
+        @Test
+        void testAddCartItems_whenAnyQuantityIsLessThanOne_shouldReturnBadRequest() throws Exception {
+            List<CartItemPostVm> cartItemPostVms = List.of(
+                new CartItemPostVm(PRODUCT_ID_SAMPLE, 1),
+                new CartItemPostVm(2L, 0));
+
+            mockMvc.perform(buildAddCartItemsRequest(cartItemPostVms))
+                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        void testAddCartItems_whenRequestIsValid_shouldReturnCartItems() throws Exception {
+            List<CartItemPostVm> cartItemPostVms = List.of(
+                new CartItemPostVm(PRODUCT_ID_SAMPLE, 1),
+                new CartItemPostVm(2L, 3));
+            List<CartItemGetVm> expectedCartItems = List.of(
+                CartItemGetVm.builder().productId(PRODUCT_ID_SAMPLE).quantity(1).build(),
+                CartItemGetVm.builder().productId(2L).quantity(3).build());
+
+            when(cartItemService.addCartItems(cartItemPostVms)).thenReturn(expectedCartItems);
+
+            mockMvc.perform(buildAddCartItemsRequest(cartItemPostVms))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].productId").value(PRODUCT_ID_SAMPLE))
+                .andExpect(jsonPath("$[1].productId").value(2L))
+                .andExpect(jsonPath("$[1].quantity").value(3));
+
+            verify(cartItemService).addCartItems(cartItemPostVms);
+        }
+
+        private MockHttpServletRequestBuilder buildAddCartItemsRequest(List<CartItemPostVm> cartItemPostVms)
+            throws Exception {
+            return post("/storefront/cart/items/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(cartItemPostVms));
+        }
+    }
+
     @Nested
     class UpdateCartItemTest {
 
@@ -148,6 +214,17 @@ public class CartItemControllerTest {
             verify(cartItemService).updateCartItem(anyLong(), any());
         }
 
+        @Test
+        void testUpdateCartItem_whenCartVersionWasWritten_shouldReturnItAsETag() throws Exception {
+            cartItemPutVm = new CartItemPutVm(1);
+            when(cartItemService.updateCartItem(anyLong(), any())).thenReturn(CartItemGetVm.builder().build());
+            when(cartVersionService.getWrittenVersion()).thenReturn(Optional.of(7L));
+
+            mockMvc.perform(buildUpdateCartItemRequest(PRODUCT_ID_SAMPLE, cartItemPutVm))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""));
+        }
+
         private void performUpdateCartItemAndExpectBadRequest(CartItemPutVm cartItemPutVm)
             throws Exception {
             mockMvc.perform(buildUpdateCartItemRequest(PRODUCT_ID_SAMPLE, cartItemPutVm))
@@ -172,14 +249,136 @@ public class CartItemControllerTest {
                 .quantity(1)
                 .build();
 
-            when(cartItemService.getCartItems()).thenReturn(List.of(expectedCartItem));
+            when(cartItemService.getCart()).thenReturn(new CartSnapshot(3L, List.of(expectedCartItem)));
 
             mockMvc.perform(get("/storefront/cart/items"))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
                 .andExpect(jsonPath("$[0].productId").value(expectedCartItem.productId()))
                 .andExpect(jsonPath("$[0].quantity").value(expectedCartItem.quantity()));
 
-            verify(cartItemService).getCartItems();
+            verify(cartItemService).getCart();
+        }
+
+        @Test
+        void testGetCartItems_whenETagIsCurrent_shouldReturnNotModifiedWithoutLoadingCart() throws Exception {
+            when(cartItemService.getCartVersion()).thenReturn(3L);
+
+            mockMvc.perform(get("/storefront/cart/items").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+
+            verify(cartItemService, never()).getCart();
+        }
+
+        @Test
+        void testGetCartItems_whenETagIsOutdated_shouldReturnCartItems() throws Exception {
+            when(cartItemService.getCartVersion()).thenReturn(4L);
+            when(cartItemService.getCart()).thenReturn(new CartSnapshot(4L, List.of()));
+
+            mockMvc.perform(get("/storefront/cart/items").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+        }
+    }
+
+    @Nested
+    class WireFormatTest {
+        private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+
+        @Test
+        void testGetCartItems_whenAcceptIsCbor_shouldReturnCbor() throws Exception {
+            CartItemGetVm cartItem = new CartItemGetVm(CUSTOMER_ID_SAMPLE, PRODUCT_ID_SAMPLE, 1);
+            when(cartItemService.getCart()).thenReturn(new CartSnapshot(1L, List.of(cartItem)));
+
+            byte[] body = mockMvc.perform(get("/storefront/cart/items").accept(CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+            assertEquals(List.of(cartItem), List.of(cborMapper.readValue(body, CartItemGetVm[].class)));
+        }
+
+        @Test
+        void testAddToCart_whenBodyIsCbor_shouldReadIt() throws Exception {
+            CartItemPostVm cartItemPostVm = new CartItemPostVm(PRODUCT_ID_SAMPLE, 2);
+            when(cartItemService.addCartItem(cartItemPostVm)).thenReturn(CartItemGetVm.builder().quantity(2).build());
+
+            mockMvc.perform(post("/storefront/cart/items")
+                    .contentType(CBOR)
+                    .content(cborMapper.writeValueAsBytes(cartItemPostVm)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.quantity").value(2));
+        }
+
+        @Test
+        void testGetCartItems_whenAcceptIsAnything_shouldReturnJson() throws Exception {
+            when(cartItemService.getCart()).thenReturn(new CartSnapshot(1L, List.of()));
+
+            mockMvc.perform(get("/storefront/cart/items").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+        }
+    }
+
+    @Nested
+    class GetCartItemPageTest {
+
+        @Test
+        void testGetCartItemPage_whenRequestIsValid_shouldReturnPage() throws Exception {
+            CartItemGetVm cartItem = new CartItemGetVm(CUSTOMER_ID_SAMPLE, PRODUCT_ID_SAMPLE, 1);
+            when(cartItemService.getCartItemPage("cursor", 1)).thenReturn(new CartItemPageVm(List.of(cartItem), "next"));
+
+            mockMvc.perform(get("/storefront/cart/items/page").param("cursor", "cursor").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].productId").value(PRODUCT_ID_SAMPLE))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+        }
+    }
+
+    @Nested
+    class StreamCartItemsTest {
+
+        @Test
+        void testStreamCartItems_shouldWriteLinesAsJsonArray() throws Exception {
+            doAnswer(invocation -> {
+                Consumer<CartItemGetVm> action = invocation.getArgument(0);
+                action.accept(new CartItemGetVm(CUSTOMER_ID_SAMPLE, PRODUCT_ID_SAMPLE, 1));
+                action.accept(new CartItemGetVm(CUSTOMER_ID_SAMPLE, 2L, 3));
+                return null;
+            }).when(cartItemService).forEachCartItem(any());
+
+            MvcResult mvcResult = mockMvc.perform(get("/storefront/cart/items/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+            mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].productId").value(2L))
+                .andExpect(jsonPath("$[1].quantity").value(3));
+        }
+    }
+
+    @Nested
+    class GetCartDetailTest {
+
+        @Test
+        void testGetCartDetail_whenEnrichmentIsPartial_shouldReturnLinesAndPartialFlag() throws Exception {
+            ProductThumbnailVm thumbnail = new ProductThumbnailVm(PRODUCT_ID_SAMPLE, "name", "slug", "thumbnail-url");
+            CartDetailVm cartDetail = new CartDetailVm(List.of(
+                new CartItemDetailVm(CUSTOMER_ID_SAMPLE, PRODUCT_ID_SAMPLE, 1, thumbnail),
+                new CartItemDetailVm(CUSTOMER_ID_SAMPLE, 2L, 3, null)), true);
+
+            when(cartDetailService.getCartDetail()).thenReturn(cartDetail);
+
+            mockMvc.perform(get("/storefront/cart/items/details"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.partial").value(true))
+                .andExpect(jsonPath("$.items[0].product.slug").value(thumbnail.slug()))
+                .andExpect(jsonPath("$.items[1].quantity").value(3))
+                .andExpect(jsonPath("$.items[1].product").isEmpty());
         }
     }
 
@@ -0,0 +1,230 @@
+package com.ecomm.cart.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.ecomm.cart.config.CartLimiterProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class ConcurrencyLimitFilterTest {
+    private static final long MILLIS = 1_000_000;
+
+    private final CartLimiterProperties properties = new CartLimiterProperties(
+        true, 10, 2, 100, 0.25, Duration.ofMillis(100), Duration.ofSeconds(30), 5, 0.5, Duration.ofSeconds(1));
+
+    /**
+     * Drives the limit with requests to a database that serves {@code POOL_SIZE} queries at once in
+     * {@code queryMillis} and queues the others, the concurrency always at the limit as under overload.
+     */
+    @Nested
+    class SlowDatabaseTest {
+        private static final int POOL_SIZE = 20;
+
+        private final GradientConcurrencyLimit limit =
+            new GradientConcurrencyLimit(20, 4, 200, 0.25, 100 * MILLIS, 30_000 * MILLIS, 25);
+        private long now;
+
+        @Test
+        void testOnSample_whenDatabaseIsHealthy_shouldSettleJustAbovePoolSize() {
+            runFor(10_000, 10);
+
+            assertThat(limit.getLimit()).isBetween(POOL_SIZE, 2 * POOL_SIZE);
+        }
+
+        @Test
+        void testOnSample_whenDatabaseSlowsDown_shouldDropToMinimumQuickly() {
+            runFor(10_000, 10);
+
+            runFor(2_000, 100);
+
+            assertThat(limit.getLimit()).isEqualTo(4);
+        }
+
+        @Test
+        void testOnSample_whenDatabaseStaysSlow_shouldAdaptAfterMeasuringMinRttAgain() {
+            runFor(10_000, 10);
+
+            runFor(40_000, 100);
+
+            assertThat(limit.getLimit()).isBetween(POOL_SIZE, 2 * POOL_SIZE);
+        }
+
+        @Test
+        void testOnSample_whenDatabaseRecovers_shouldGrowBackWithinASecond() {
+            runFor(10_000, 10);
+            runFor(2_000, 100);
+
+            runFor(1_000, 10);
+
+            assertThat(limit.getLimit()).isBetween(POOL_SIZE, 2 * POOL_SIZE);
+        }
+
+        @Test
+        void testOnSample_whenConcurrencyStaysLow_shouldNotGrow() {
+            runFor(1_000, 10);
+            runSequentiallyFor(200, 10);
+            int settled = limit.getLimit();
+
+            runSequentiallyFor(10_000, 10);
+
+            assertThat(limit.getLimit()).isEqualTo(settled);
+        }
+
+        private void runFor(long millis, long queryMillis) {
+            long end = now + millis * MILLIS;
+            while (now < end) {
+                int concurrency = limit.getLimit();
+                long rtt = (long) (queryMillis * MILLIS * Math.max(1.0, concurrency / (double) POOL_SIZE));
+                now += rtt;
+                for (int i = 0; i < concurrency; i++) {
+                    limit.onSample(now, rtt, concurrency);
+                }
+            }
+        }
+
+        private void runSequentiallyFor(long millis, long queryMillis) {
+            long end = now + millis * MILLIS;
+            while (now < end) {
+                now += queryMillis * MILLIS;
+                limit.onSample(now, queryMillis * MILLIS, 1);
+            }
+        }
+    }
+
+    @Nested
+    class FilterTest {
+        private final AtomicLong clock = new AtomicLong();
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final CountDownLatch release = new CountDownLatch(1);
+        private ConcurrencyLimitFilter filter;
+
+        @BeforeEach
+        void setUp() throws Exception {
+            filter = new ConcurrencyLimitFilter(properties, meterRegistry, clock::get);
+            // Measures minRtt at the minimum concurrency, after which the initial limit applies
+            for (int i = 0; i < properties.minRttSamples(); i++) {
+                assertThat(handle("GET").getStatus()).isEqualTo(200);
+            }
+        }
+
+        @AfterEach
+        void tearDown() {
+            release.countDown();
+            executor.shutdownNow();
+        }
+
+        @Test
+        void testDoFilter_whenLimitIsReached_shouldShedReadsWith503() throws Exception {
+            List<Future<MockHttpServletResponse>> blocked = holdSlots("GET", properties.initialLimit());
+
+            MockHttpServletResponse response = handle("GET");
+
+            assertThat(response.getStatus()).isEqualTo(503);
+            assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+            assertThat(requests("read", "rejected")).isEqualTo(1);
+            release.countDown();
+            for (Future<MockHttpServletResponse> future : blocked) {
+                assertThat(future.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+            }
+            assertThat(handle("GET").getStatus()).isEqualTo(200);
+        }
+
+        @Test
+        void testDoFilter_whenWriteShareIsReached_shouldShedWritesButAdmitReads() throws Exception {
+            holdSlots("POST", properties.initialLimit() / 2);
+
+            assertThat(handle("PUT").getStatus()).isEqualTo(503);
+            assertThat(handle("GET").getStatus()).isEqualTo(200);
+            assertThat(requests("write", "rejected")).isEqualTo(1);
+            assertThat(requests("write", "admitted")).isEqualTo(properties.initialLimit() / 2);
+        }
+
+        @Test
+        void testDoFilter_whenResponseIsAsync_shouldHoldTheSlotUntilItCompletes() throws Exception {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/storefront/cart/items/stream");
+            request.setAsyncSupported(true);
+            filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+            assertThat(inflight()).isEqualTo(1);
+
+            ((MockAsyncContext) request.getAsyncContext()).complete();
+
+            assertThat(inflight()).isZero();
+        }
+
+        @Test
+        void testDoFilter_whenChainThrows_shouldReleaseTheSlot() {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/storefront/cart/items");
+
+            assertThrows(IllegalStateException.class,
+                () -> filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+                    throw new IllegalStateException("database down");
+                }));
+
+            assertThat(inflight()).isZero();
+        }
+
+        private MockHttpServletResponse handle(String method) throws Exception {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest(method, "/storefront/cart/items"), response,
+                (request, res) -> clock.addAndGet(10 * MILLIS));
+            return response;
+        }
+
+        /**
+         * Starts {@code count} requests that stay in the chain until {@link #release} opens.
+         */
+        private List<Future<MockHttpServletResponse>> holdSlots(String method, int count) throws Exception {
+            List<Future<MockHttpServletResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                futures.add(executor.submit(() -> {
+                    MockHttpServletResponse response = new MockHttpServletResponse();
+                    filter.doFilter(new MockHttpServletRequest(method, "/storefront/cart/items"), response,
+                        (request, res) -> {
+                            try {
+                                release.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        });
+                    return response;
+                }));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (inflight() < count && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertThat(inflight()).isEqualTo(count);
+            return futures;
+        }
+
+        private double inflight() {
+            return meterRegistry.get("cart.limiter.inflight").gauge().value();
+        }
+
+        private double requests(String kind, String outcome) {
+            return meterRegistry.get("cart.limiter.requests").tag("kind", kind).tag("outcome", outcome)
+                .counter().count();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.ecomm.cart.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ecomm.cart.config.CartRateLimitProperties;
+import com.ecomm.cart.limit.CustomerRateLimiter.EndpointClass;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class CustomerRateLimiterTest {
+    private static final String CUSTOMER_ID_SAMPLE = "123";
+
+    private final AtomicLong clock = new AtomicLong();
+    private final CartRateLimitProperties properties = new CartRateLimitProperties(true, 2, Duration.ofMinutes(10),
+        new CartRateLimitProperties.Bucket(3, 60),
+        new CartRateLimitProperties.Bucket(1, 60),
+        new CartRateLimitProperties.Bucket(1, 60));
+    private final CustomerRateLimiter customerRateLimiter =
+        new CustomerRateLimiter(properties, clock::get, Runnable::run);
+
+    @Test
+    void testTryAcquire_whenBurstIsSpent_shouldReturnTheWaitForTheNextToken() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(customerRateLimiter.tryAcquire(CUSTOMER_ID_SAMPLE, EndpointClass.ADD)).isZero();
+        }
+
+        assertThat(customerRateLimiter.tryAcquire(CUSTOMER_ID_SAMPLE, EndpointClass.ADD))
+            .isEqualTo(TimeUnit.SECONDS.toNanos(1));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(customerRateLimiter.tryAcquire(CUSTOMER_ID_SAMPLE, EndpointClass.ADD)).isZero();
+        assertThat(customerRateLimiter.tryAcquire(CUSTOMER_ID_SAMPLE, EndpointClass.ADD)).isPositive();
+    }
+
+    @Test
+    void testTryAcquire_whenIdleLongEnough_shouldRefillNoMoreThanTheBurst() {
+        customerRateLimiter.tryAcquire(CUSTOMER_ID_SAMPLE, EndpointClass.ADD);
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(customerRateLimiter.tryAcquire(CUSTOMER_ID_SAMPLE, EndpointClass.ADD)).isZero();
+        }
+        assertThat(customerRateLimiter.tryAcquire(CUSTOMER_ID_SAMPLE, EndpointClass.ADD)).isPositive();
+    }
+
+    @Test
+    void testTryAcquire_shouldKeepEndpointClassesAndCustomersApart() {
+        assertThat(customerRateLimiter.tryAcquire(CUSTOMER_ID_SAMPLE, EndpointClass.UPDATE)).isZero();
+        assertThat(customerRateLimiter.tryAcquire(CUSTOMER_ID_SAMPLE, EndpointClass.UPDATE)).isPositive();
+
+        assertThat(customerRateLimiter.tryAcquire(CUSTOMER_ID_SAMPLE, EndpointClass.REMOVE)).isZero();
+        assertThat(customerRateLimiter.tryAcquire("456", EndpointClass.UPDATE)).isZero();
+    }
+
+    @Test
+    void testTryAcquire_whenManyCustomers_shouldTrackNoMoreThanMaxCustomers() {
+        for (int i = 0; i < 1_000; i++) {
+            customerRateLimiter.tryAcquire("customer-" + i, EndpointClass.ADD);
+        }
+
+        assertThat(customerRateLimiter.trackedCustomers()).isLessThanOrEqualTo(properties.maxCustomers());
+    }
+
+    @Test
+    void testTryAcquire_whenCustomerIsIdle_shouldForgetIt() {
+        customerRateLimiter.tryAcquire(CUSTOMER_ID_SAMPLE, EndpointClass.ADD);
+
+        clock.addAndGet(properties.idleTimeout().toNanos() + 1);
+        customerRateLimiter.tryAcquire("456", EndpointClass.ADD);
+
+        assertThat(customerRateLimiter.trackedCustomers()).isEqualTo(1);
+    }
+
+    @Test
+    void testTryAcquire_whenThreadsRace_shouldAdmitExactlyTheBurst() throws Exception {
+        CustomerRateLimiter racingLimiter = new CustomerRateLimiter(new CartRateLimitProperties(true, 10,
+            Duration.ofMinutes(10), new CartRateLimitProperties.Bucket(100, 1), properties.update(),
+            properties.remove()), clock::get, Runnable::run);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    int admitted = 0;
+                    for (int i = 0; i < 1_000; i++) {
+                        if (racingLimiter.tryAcquire(CUSTOMER_ID_SAMPLE, EndpointClass.ADD) == 0) {
+                            admitted++;
+                        }
+                    }
+                    return admitted;
+                }));
+            }
+            start.countDown();
+            int admitted = 0;
+            for (Future<Integer> future : futures) {
+                admitted += future.get(10, TimeUnit.SECONDS);
+            }
+
+            assertThat(admitted).isEqualTo(100);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Nested
+    class FilterTest {
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        private final RateLimitFilter filter = new RateLimitFilter(customerRateLimiter, meterRegistry);
+
+        @Test
+        void testDoFilter_whenBucketIsEmpty_shouldAnswer429WithRetryAfter() throws Exception {
+            assertThat(handle("PUT", "/storefront/cart/items/1").getStatus()).isEqualTo(200);
+
+            MockHttpServletResponse response = handle("PUT", "/storefront/cart/items/1");
+
+            assertThat(response.getStatus()).isEqualTo(429);
+            assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+            assertThat(meterRegistry.get("cart.ratelimit.requests").tag("endpoint", "update")
+                .tag("outcome", "limited").counter().count()).isEqualTo(1);
+        }
+
+        @Test
+        void testDoFilter_whenRequestIsARead_shouldNotLimitIt() throws Exception {
+            for (int i = 0; i < 10; i++) {
+                assertThat(handle("GET", "/storefront/cart/items").getStatus()).isEqualTo(200);
+            }
+        }
+
+        @Test
+        void testClassify_shouldMapEveryMutationOfTheController() {
+            assertThat(RateLimitFilter.classify(request("POST", "/storefront/cart/items")))
+                .isEqualTo(EndpointClass.ADD);
+            assertThat(RateLimitFilter.classify(request("POST", "/storefront/cart/items/batch")))
+                .isEqualTo(EndpointClass.ADD);
+            assertThat(RateLimitFilter.classify(request("PUT", "/storefront/cart/items/1")))
+                .isEqualTo(EndpointClass.UPDATE);
+            assertThat(RateLimitFilter.classify(request("POST", "/storefront/cart/items/remove")))
+                .isEqualTo(EndpointClass.REMOVE);
+            assertThat(RateLimitFilter.classify(request("DELETE", "/storefront/cart/items/1")))
+                .isEqualTo(EndpointClass.REMOVE);
+            assertThat(RateLimitFilter.classify(request("GET", "/storefront/cart/items/details"))).isNull();
+        }
+
+        private MockHttpServletResponse handle(String method, String path) throws Exception {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request(method, path), response, new MockFilterChain());
+            return response;
+        }
+
+        private static MockHttpServletRequest request(String method, String path) {
+            MockHttpServletRequest request = new MockHttpServletRequest(method, "/cart" + path);
+            request.setContextPath("/cart");
+            return request;
+        }
+    }
+}
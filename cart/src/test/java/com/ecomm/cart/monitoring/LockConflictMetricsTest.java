@@ -0,0 +1,70 @@
+package com.ecomm.cart.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.ecomm.cart.model.CartItem;
+import com.ecomm.cart.repository.CartItemRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+class LockConflictMetricsTest {
+    private SimpleMeterRegistry meterRegistry;
+    private CartItemRepository target;
+    private CartItemRepository cartItemRepository;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        target = mock(CartItemRepository.class);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addInterface(CartItemRepository.class);
+        proxyFactory.addAspect(new LockConflictMetrics(meterRegistry));
+        cartItemRepository = proxyFactory.getProxy();
+    }
+
+    @Test
+    void testCountConflicts_whenLockTimesOut_shouldCountPessimisticConflictAndRethrow() {
+        CannotAcquireLockException conflict = new CannotAcquireLockException("lock timeout");
+        when(target.upsertAddQuantity(any(), anyLong(), anyInt())).thenThrow(conflict);
+
+        CannotAcquireLockException thrown =
+            assertThrows(CannotAcquireLockException.class, () -> cartItemRepository.upsertAddQuantity("123", 1L, 1));
+
+        assertThat(thrown).isSameAs(conflict);
+        assertThat(meterRegistry.get("cart.lock.conflicts")
+            .tag("method", "upsertAddQuantity")
+            .tag("kind", "pessimistic")
+            .counter()
+            .count()).isEqualTo(1);
+    }
+
+    @Test
+    void testCountConflicts_whenVersionMismatch_shouldCountOptimisticConflict() {
+        when(target.save(any())).thenThrow(new ObjectOptimisticLockingFailureException(CartItem.class, "123"));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+            () -> cartItemRepository.save(CartItem.builder().build()));
+
+        assertThat(meterRegistry.get("cart.lock.conflicts").tag("kind", "optimistic").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void testCountConflicts_whenCallSucceeds_shouldNotRegisterCounter() {
+        cartItemRepository.findByCustomerId("123");
+
+        assertThat(meterRegistry.find("cart.lock.conflicts").counter()).isNull();
+    }
+}
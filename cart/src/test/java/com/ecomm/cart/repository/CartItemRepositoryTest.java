@@ -14,7 +14,8 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@DataJpaTest
+// The changelog is Postgres-only (hash partitions), so the embedded database gets its schema from the entities
+@DataJpaTest(properties = {"spring.liquibase.enabled=false", "spring.jpa.hibernate.ddl-auto=create-drop"})
 @Transactional
 class CartItemRepositoryTest {
 
@@ -0,0 +1,130 @@
+package com.ecomm.cart.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.ecomm.cart.config.CartDetailProperties;
+import com.ecomm.cart.viewmodel.CartDetailVm;
+import com.ecomm.cart.viewmodel.CartItemGetVm;
+import com.ecomm.cart.viewmodel.ProductThumbnailVm;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.ResourceAccessException;
+
+@ExtendWith(MockitoExtension.class)
+class CartDetailServiceTest {
+    private static final String CURRENT_USER_ID_SAMPLE = "123";
+    private static final List<Long> PRODUCT_IDS_SAMPLE = List.of(1L, 2L);
+    private static final ProductThumbnailVm THUMBNAIL_SAMPLE = new ProductThumbnailVm(1L, "name", "slug", "url");
+
+    @Mock
+    private CartItemService cartItemService;
+
+    @Mock
+    private ProductService productService;
+
+    private CartDetailService cartDetailService;
+
+    @BeforeEach
+    void setUp() {
+        cartDetailService = new CartDetailService(cartItemService, productService,
+            new CartDetailProperties(Duration.ofMillis(100), 1));
+    }
+
+    @Test
+    void testGetCartDetail_whenThumbnailsLoadInTime_shouldJoinThemToLines() {
+        givenCartItems();
+        when(productService.findThumbnails(PRODUCT_IDS_SAMPLE)).thenReturn(Map.of(1L, THUMBNAIL_SAMPLE));
+
+        CartDetailVm cartDetail = cartDetailService.getCartDetail();
+
+        assertThat(cartDetail.partial()).isFalse();
+        assertThat(cartDetail.items()).hasSize(2);
+        assertThat(cartDetail.items().get(0).product()).isEqualTo(THUMBNAIL_SAMPLE);
+        assertThat(cartDetail.items().get(1).product()).isNull();
+        assertThat(cartDetail.items().get(1).quantity()).isEqualTo(3);
+        verify(productService, never()).findCachedThumbnails(PRODUCT_IDS_SAMPLE);
+    }
+
+    @Test
+    void testGetCartDetail_whenThumbnailsMissDeadline_shouldAnswerWithCachedOnesAsPartial() {
+        CountDownLatch slowProductService = new CountDownLatch(1);
+        givenCartItems();
+        when(productService.findThumbnails(PRODUCT_IDS_SAMPLE)).thenAnswer(invocation -> {
+            slowProductService.await();
+            return Map.of();
+        });
+        when(productService.findCachedThumbnails(PRODUCT_IDS_SAMPLE)).thenReturn(Map.of(1L, THUMBNAIL_SAMPLE));
+
+        CartDetailVm cartDetail = cartDetailService.getCartDetail();
+        slowProductService.countDown();
+
+        assertThat(cartDetail.partial()).isTrue();
+        assertThat(cartDetail.items().get(0).product()).isEqualTo(THUMBNAIL_SAMPLE);
+        assertThat(cartDetail.items().get(1).product()).isNull();
+    }
+
+    @Test
+    void testGetCartDetail_whenProductServiceFails_shouldAnswerWithCachedOnesAsPartial() {
+        givenCartItems();
+        when(productService.findThumbnails(PRODUCT_IDS_SAMPLE)).thenThrow(new ResourceAccessException("down"));
+        when(productService.findCachedThumbnails(PRODUCT_IDS_SAMPLE)).thenReturn(Map.of());
+
+        CartDetailVm cartDetail = cartDetailService.getCartDetail();
+
+        assertThat(cartDetail.partial()).isTrue();
+        assertThat(cartDetail.items()).extracting(item -> item.product()).containsOnlyNulls();
+    }
+
+    @Test
+    void testGetCartDetail_whenLookupsAreSaturated_shouldAnswerWithCachedOnesWithoutQueueing() {
+        CountDownLatch slowProductService = new CountDownLatch(1);
+        givenCartItems();
+        when(productService.findThumbnails(PRODUCT_IDS_SAMPLE)).thenAnswer(invocation -> {
+            slowProductService.await();
+            return Map.of();
+        });
+        when(productService.findCachedThumbnails(PRODUCT_IDS_SAMPLE)).thenReturn(Map.of(1L, THUMBNAIL_SAMPLE));
+
+        // The first lookup outlives its deadline and keeps the only permit
+        cartDetailService.getCartDetail();
+        long startNanos = System.nanoTime();
+        CartDetailVm cartDetail = cartDetailService.getCartDetail();
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+        slowProductService.countDown();
+
+        assertThat(cartDetail.partial()).isTrue();
+        assertThat(cartDetail.items().get(0).product()).isEqualTo(THUMBNAIL_SAMPLE);
+        assertThat(elapsedMillis).isLessThan(100);
+        verify(productService, times(1)).findThumbnails(PRODUCT_IDS_SAMPLE);
+    }
+
+    @Test
+    void testGetCartDetail_whenCartIsEmpty_shouldNotCallProductService() {
+        when(cartItemService.getCartItems()).thenReturn(List.of());
+
+        CartDetailVm cartDetail = cartDetailService.getCartDetail();
+
+        assertThat(cartDetail.items()).isEmpty();
+        assertThat(cartDetail.partial()).isFalse();
+        verifyNoInteractions(productService);
+    }
+
+    private void givenCartItems() {
+        when(cartItemService.getCartItems()).thenReturn(List.of(
+            new CartItemGetVm(CURRENT_USER_ID_SAMPLE, 1L, 1),
+            new CartItemGetVm(CURRENT_USER_ID_SAMPLE, 2L, 3)));
+    }
+}
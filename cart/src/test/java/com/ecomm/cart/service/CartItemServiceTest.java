@@ -1,35 +1,70 @@
 package com.ecomm.cart.service;
 
+import com.ecomm.cart.cache.CartInvalidationBus;
+import com.ecomm.cart.cache.CartItemCache;
+import com.ecomm.cart.concurrency.CartWriteExecutor;
+import com.ecomm.cart.config.CartConcurrencyProperties;
+import com.ecomm.cart.config.CartInvalidationProperties;
+import com.ecomm.cart.config.CartReplicaProperties;
+import com.ecomm.cart.exception.BadRequestException;
+import com.ecomm.cart.exception.NotFoundException;
 import com.ecomm.cart.mapper.CartItemMapper;
 import com.ecomm.cart.model.CartItem;
 import com.ecomm.cart.repository.CartItemRepository;
+import com.ecomm.cart.routing.ReadYourWrites;
+import com.ecomm.cart.routing.ReplicaReads;
+import com.ecomm.cart.store.RowCartStore;
+import com.ecomm.cart.utils.Constants;
 import com.ecomm.cart.viewmodel.CartItemDeleteVm;
 import com.ecomm.cart.viewmodel.CartItemGetVm;
+import com.ecomm.cart.viewmodel.CartItemPageVm;
 import com.ecomm.cart.viewmodel.CartItemPostVm;
 import com.ecomm.cart.viewmodel.CartItemPutVm;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.dockerjava.api.exception.InternalServerErrorException;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Optional;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.data.domain.Limit;
 import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionOperations;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -40,12 +75,40 @@ public class CartItemServiceTest {
     @Spy
     private CartItemMapper cartItemMapper = new CartItemMapper();
 
-    @InjectMocks
+    @Spy
+    private CartItemCache cartItemCache = new CartItemCache(Caffeine.newBuilder().recordStats().build());
+
+    @Spy
+    private CartInvalidationBus cartInvalidationBus = new CartInvalidationBus(
+        cartItemCache,
+        mock(JdbcTemplate.class),
+        new CartInvalidationProperties(false, "cart_changed", Duration.ZERO, Duration.ZERO, Duration.ZERO),
+        new ReadYourWrites(new CartReplicaProperties(
+            false, List.of(), null, null, 1, Duration.ZERO, Duration.ZERO, 0), mock(ObjectProvider.class)));
+
+    @Mock
+    private ProductService productService;
+
+    private final CartConcurrencyProperties concurrencyProperties = new CartConcurrencyProperties(
+        CartConcurrencyProperties.Mode.OPTIMISTIC, 16, Duration.ofSeconds(1), 3, Duration.ZERO, Duration.ZERO, 0.2, 10);
+
+    @Spy
+    private CartWriteExecutor cartWriteExecutor = new CartWriteExecutor(
+        TransactionOperations.withoutTransaction(), concurrencyProperties, new SimpleMeterRegistry());
+
+    @Mock
+    private CartVersionService cartVersionService;
+
     private CartItemService cartItemService;
 
     @BeforeEach
     void setUp() {
         Mockito.reset(cartItemRepository);
+        cartItemCache.evictAll();
+        cartItemService = new CartItemService(
+            new RowCartStore(cartItemRepository, cartItemMapper, concurrencyProperties),
+            cartItemCache, cartInvalidationBus, productService, cartWriteExecutor, cartVersionService,
+            new ReplicaReads(TransactionOperations.withoutTransaction()));
     }
 
     private static final String CURRENT_USER_ID_SAMPLE = "123";
@@ -73,13 +136,20 @@ public class CartItemServiceTest {
                 .build();
             int expectedQuantity = existingCartItem.getQuantity() + cartItemPostVm.quantity();
 
-            when(cartItemRepository.findByCustomerIdAndProductId(anyString(), anyLong())).thenReturn(
-                Optional.of(existingCartItem));
-            when(cartItemRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+            when(productService.existsById(cartItemPostVm.productId())).thenReturn(true);
+            when(cartItemRepository.upsertAddQuantity(anyString(), anyLong(), anyInt())).thenReturn(
+                CartItem.builder()
+                    .customerId(CURRENT_USER_ID_SAMPLE)
+                    .productId(cartItemPostVm.productId())
+                    .quantity(expectedQuantity)
+                    .build());
 
             CartItemGetVm cartItem = cartItemService.addCartItem(cartItemPostVm);
 
-            verify(cartItemRepository).save(any());
+            verify(cartItemRepository).upsertAddQuantity(
+                CURRENT_USER_ID_SAMPLE, cartItemPostVm.productId(), cartItemPostVm.quantity());
+            verify(cartItemRepository, never()).findByCustomerIdAndProductId(anyString(), anyLong());
+            verify(cartItemRepository, never()).save(any());
             assertEquals(expectedQuantity, cartItem.quantity());
             assertEquals(CURRENT_USER_ID_SAMPLE, cartItem.customerId());
             assertEquals(cartItemPostVm.productId(), cartItem.productId());
@@ -89,17 +159,104 @@ public class CartItemServiceTest {
         void testAddCartItem_whenCartItemDoesNotExist_shouldCreateCartItem() {
             CartItemPostVm cartItemPostVm = cartItemPostVmBuilder.build();
 
-            when(cartItemRepository.findByCustomerIdAndProductId(anyString(), anyLong())).thenReturn(
-                java.util.Optional.empty());
-            when(cartItemRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+            when(productService.existsById(cartItemPostVm.productId())).thenReturn(true);
+            when(cartItemRepository.upsertAddQuantity(anyString(), anyLong(), anyInt())).thenAnswer(
+                invocation -> CartItem.builder()
+                    .customerId(invocation.getArgument(0))
+                    .productId(invocation.getArgument(1))
+                    .quantity(invocation.getArgument(2))
+                    .build());
 
             CartItemGetVm cartItem = cartItemService.addCartItem(cartItemPostVm);
 
-            verify(cartItemRepository).save(any());
+            verify(cartItemRepository).upsertAddQuantity(
+                CURRENT_USER_ID_SAMPLE, cartItemPostVm.productId(), cartItemPostVm.quantity());
             assertEquals(CURRENT_USER_ID_SAMPLE, cartItem.customerId());
             assertEquals(cartItemPostVm.productId(), cartItem.productId());
             assertEquals(cartItemPostVm.quantity(), cartItem.quantity());
         }
+
+        @Test
+        void testAddCartItem_whenUpsertHitsLockConflict_shouldRetryInNewTransaction() {
+            CartItemPostVm cartItemPostVm = cartItemPostVmBuilder.build();
+
+            when(productService.existsById(cartItemPostVm.productId())).thenReturn(true);
+            when(cartItemRepository.upsertAddQuantity(anyString(), anyLong(), anyInt()))
+                .thenThrow(new CannotAcquireLockException("lock timeout"))
+                .thenReturn(CartItem.builder()
+                    .customerId(CURRENT_USER_ID_SAMPLE)
+                    .productId(cartItemPostVm.productId())
+                    .quantity(cartItemPostVm.quantity())
+                    .build());
+
+            CartItemGetVm cartItem = cartItemService.addCartItem(cartItemPostVm);
+
+            verify(cartItemRepository, times(2)).upsertAddQuantity(
+                CURRENT_USER_ID_SAMPLE, cartItemPostVm.productId(), cartItemPostVm.quantity());
+            assertEquals(cartItemPostVm.quantity(), cartItem.quantity());
+        }
+
+        @Test
+        void testAddCartItem_whenProductDoesNotExist_shouldThrowNotFoundException() {
+            CartItemPostVm cartItemPostVm = cartItemPostVmBuilder.build();
+
+            when(productService.existsById(cartItemPostVm.productId())).thenReturn(false);
+
+            NotFoundException exception =
+                assertThrows(NotFoundException.class, () -> cartItemService.addCartItem(cartItemPostVm));
+
+            assertEquals(Constants.ErrorCode.NOT_FOUND_PRODUCT, exception.getErrorCode());
+            verify(cartItemRepository, never()).upsertAddQuantity(anyString(), anyLong(), anyInt());
+        }
+    }
+
+    @Nested
+    class AddCartItemsTest {
+
+        @Test
+        void testAddCartItems_whenSomeCartItemsExist_shouldMergeDuplicatesAndPersistOnlyNewOnes() {
+            CartItem existingCartItem = CartItem.builder()
+                .customerId(CURRENT_USER_ID_SAMPLE)
+                .productId(PRODUCT_ID_SAMPLE)
+                .quantity(1)
+                .build();
+            List<CartItemPostVm> cartItemPostVms = List.of(
+                new CartItemPostVm(PRODUCT_ID_SAMPLE, 1),
+                new CartItemPostVm(2L, 2),
+                new CartItemPostVm(PRODUCT_ID_SAMPLE, 3));
+
+            when(productService.findMissingIds(Set.of(PRODUCT_ID_SAMPLE, 2L))).thenReturn(Set.of());
+            when(cartItemRepository.findByCustomerIdAndProductIdIn(CURRENT_USER_ID_SAMPLE, List.of(PRODUCT_ID_SAMPLE, 2L)))
+                .thenReturn(List.of(existingCartItem));
+
+            List<CartItemGetVm> cartItemGetVms = cartItemService.addCartItems(cartItemPostVms);
+
+            ArgumentCaptor<List<CartItem>> newCartItemsCaptor = ArgumentCaptor.forClass(List.class);
+            verify(cartItemRepository).saveAll(newCartItemsCaptor.capture());
+            assertEquals(1, newCartItemsCaptor.getValue().size());
+            assertEquals(2L, newCartItemsCaptor.getValue().get(0).getProductId());
+
+            assertEquals(2, cartItemGetVms.size());
+            assertEquals(PRODUCT_ID_SAMPLE, cartItemGetVms.get(0).productId());
+            assertEquals(5, cartItemGetVms.get(0).quantity());
+            assertEquals(2L, cartItemGetVms.get(1).productId());
+            assertEquals(2, cartItemGetVms.get(1).quantity());
+        }
+
+        @Test
+        void testAddCartItems_whenSomeProductsDoNotExist_shouldThrowNotFoundException() {
+            List<CartItemPostVm> cartItemPostVms = List.of(
+                new CartItemPostVm(PRODUCT_ID_SAMPLE, 1),
+                new CartItemPostVm(2L, 2));
+
+            when(productService.findMissingIds(Set.of(PRODUCT_ID_SAMPLE, 2L))).thenReturn(Set.of(2L));
+
+            NotFoundException exception =
+                assertThrows(NotFoundException.class, () -> cartItemService.addCartItems(cartItemPostVms));
+
+            assertEquals(Constants.ErrorCode.NOT_FOUND_PRODUCT, exception.getErrorCode());
+            verify(cartItemRepository, never()).saveAll(any());
+        }
     }
 
     @Nested
@@ -113,11 +270,18 @@ public class CartItemServiceTest {
 
         @Test
         void testUpdateCartItem_whenRequestIsValid_shouldReturnCartItem() {
-            when(cartItemRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+            when(productService.existsById(PRODUCT_ID_SAMPLE)).thenReturn(true);
+            when(cartItemRepository.upsertSetQuantity(anyString(), anyLong(), anyInt())).thenAnswer(
+                invocation -> CartItem.builder()
+                    .customerId(invocation.getArgument(0))
+                    .productId(invocation.getArgument(1))
+                    .quantity(invocation.getArgument(2))
+                    .build());
 
             CartItemGetVm updatedCartItem = cartItemService.updateCartItem(PRODUCT_ID_SAMPLE, cartItemPutVm);
 
-            verify(cartItemRepository).save(any());
+            verify(cartItemRepository).upsertSetQuantity(
+                CURRENT_USER_ID_SAMPLE, PRODUCT_ID_SAMPLE, cartItemPutVm.quantity());
             assertEquals(CURRENT_USER_ID_SAMPLE, updatedCartItem.customerId());
             assertEquals(PRODUCT_ID_SAMPLE, updatedCartItem.productId());
             assertEquals(cartItemPutVm.quantity(), updatedCartItem.quantity());
@@ -144,6 +308,149 @@ public class CartItemServiceTest {
             verify(cartItemRepository).findByCustomerId(CURRENT_USER_ID_SAMPLE);
             assertEquals(existingCartItems.size(), cartItemGetVms.size());
         }
+
+        @Test
+        void testGetCartItems_whenCalledTwice_shouldServeSecondCallFromCache() {
+            when(cartItemRepository.findByCustomerId(CURRENT_USER_ID_SAMPLE)).thenReturn(List.of());
+
+            cartItemService.getCartItems();
+            cartItemService.getCartItems();
+
+            verify(cartItemRepository, times(1)).findByCustomerId(CURRENT_USER_ID_SAMPLE);
+            assertEquals(1, cartItemCache.stats().hitCount());
+        }
+
+        @Test
+        void testGetCartItems_whenCartWasModified_shouldReload() {
+            when(cartItemRepository.findByCustomerId(CURRENT_USER_ID_SAMPLE)).thenReturn(List.of());
+
+            cartItemService.getCartItems();
+            cartItemService.deleteCartItem(PRODUCT_ID_SAMPLE);
+            cartItemService.getCartItems();
+
+            verify(cartItemRepository, times(2)).findByCustomerId(CURRENT_USER_ID_SAMPLE);
+            verify(cartVersionService).increment(CURRENT_USER_ID_SAMPLE);
+        }
+
+        @Test
+        void testGetCartVersion_whenCartIsCached_shouldNotQueryVersion() {
+            when(cartVersionService.getVersion(CURRENT_USER_ID_SAMPLE)).thenReturn(5L);
+            when(cartItemRepository.findByCustomerId(CURRENT_USER_ID_SAMPLE)).thenReturn(List.of());
+
+            assertEquals(5L, cartItemService.getCart().version());
+            assertEquals(5L, cartItemService.getCartVersion());
+
+            verify(cartVersionService, times(1)).getVersion(CURRENT_USER_ID_SAMPLE);
+        }
+
+        @Test
+        void testGetCartItems_whenCalledConcurrently_shouldShareOneLoad() throws Exception {
+            CountDownLatch loading = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            when(cartItemRepository.findByCustomerId(CURRENT_USER_ID_SAMPLE)).thenAnswer(invocation -> {
+                loading.countDown();
+                release.await();
+                return List.of();
+            });
+
+            try (ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<List<CartItemGetVm>>> reads = new ArrayList<>();
+                for (int i = 0; i < 32; i++) {
+                    reads.add(readers.submit(cartItemService::getCartItems));
+                }
+                loading.await();
+                Thread.sleep(50);
+                release.countDown();
+                for (Future<List<CartItemGetVm>> read : reads) {
+                    assertEquals(0, read.get().size());
+                }
+            }
+
+            verify(cartItemRepository, times(1)).findByCustomerId(CURRENT_USER_ID_SAMPLE);
+        }
+
+        @Test
+        void testGetCartItems_whenCartIsModifiedDuringLoad_shouldNotCacheStaleResult() throws Exception {
+            CountDownLatch loading = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            when(cartItemRepository.findByCustomerId(CURRENT_USER_ID_SAMPLE))
+                .thenAnswer(invocation -> {
+                    loading.countDown();
+                    release.await();
+                    return List.of();
+                })
+                .thenReturn(List.of());
+
+            try (ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor()) {
+                Future<List<CartItemGetVm>> read = readers.submit(cartItemService::getCartItems);
+                loading.await();
+                cartItemService.deleteCartItem(PRODUCT_ID_SAMPLE);
+                release.countDown();
+                read.get();
+            }
+            cartItemService.getCartItems();
+
+            verify(cartItemRepository, times(2)).findByCustomerId(CURRENT_USER_ID_SAMPLE);
+        }
+    }
+
+    @Nested
+    class GetCartItemPageTest {
+
+        @Test
+        void testGetCartItemPage_whenMoreLinesThanSize_shouldReturnCursorToNextPage() {
+            when(cartItemRepository.findPageByCustomerId(CURRENT_USER_ID_SAMPLE, Long.MIN_VALUE, Limit.of(3)))
+                .thenReturn(List.of(cartItemGetVm(1L), cartItemGetVm(2L), cartItemGetVm(3L)));
+            when(cartItemRepository.findPageByCustomerId(CURRENT_USER_ID_SAMPLE, 3L, Limit.of(3)))
+                .thenReturn(List.of(cartItemGetVm(3L)));
+
+            CartItemPageVm firstPage = cartItemService.getCartItemPage(null, 2);
+            CartItemPageVm lastPage = cartItemService.getCartItemPage(firstPage.nextCursor(), 2);
+
+            assertEquals(List.of(1L, 2L), firstPage.items().stream().map(CartItemGetVm::productId).toList());
+            assertEquals(List.of(3L), lastPage.items().stream().map(CartItemGetVm::productId).toList());
+            assertNull(lastPage.nextCursor());
+        }
+
+        @Test
+        void testGetCartItemPage_whenSizeIsTooLarge_shouldClampIt() {
+            when(cartItemRepository.findPageByCustomerId(anyString(), anyLong(), any())).thenReturn(List.of());
+
+            cartItemService.getCartItemPage(null, Integer.MAX_VALUE);
+
+            verify(cartItemRepository).findPageByCustomerId(
+                CURRENT_USER_ID_SAMPLE, Long.MIN_VALUE, Limit.of(CartItemService.MAX_PAGE_SIZE + 1));
+        }
+
+        @Test
+        void testGetCartItemPage_whenCursorIsInvalid_shouldThrowBadRequestException() {
+            BadRequestException exception =
+                assertThrows(BadRequestException.class, () -> cartItemService.getCartItemPage("not a cursor", 10));
+
+            assertEquals(Constants.ErrorCode.INVALID_CART_CURSOR, exception.getErrorCode());
+        }
+
+        private CartItemGetVm cartItemGetVm(Long productId) {
+            return new CartItemGetVm(CURRENT_USER_ID_SAMPLE, productId, 1);
+        }
+    }
+
+    @Nested
+    class ForEachCartItemTest {
+
+        @Test
+        void testForEachCartItem_shouldHandEveryLineAndCloseTheStream() {
+            AtomicBoolean closed = new AtomicBoolean();
+            CartItemGetVm cartItem = new CartItemGetVm(CURRENT_USER_ID_SAMPLE, PRODUCT_ID_SAMPLE, 1);
+            when(cartItemRepository.streamByCustomerId(CURRENT_USER_ID_SAMPLE))
+                .thenReturn(Stream.of(cartItem, cartItem).onClose(() -> closed.set(true)));
+
+            List<CartItemGetVm> cartItems = new ArrayList<>();
+            cartItemService.forEachCartItem(cartItems::add);
+
+            assertEquals(2, cartItems.size());
+            assertTrue(closed.get());
+        }
     }
 
     @Nested
@@ -151,42 +458,57 @@ public class CartItemServiceTest {
 
         @Test
         void testDeleteOrAdjustCartItem_whenDeleteQuantityGreaterThanCartItemQuantity_shouldDeleteCartItem() {
-            CartItem existingCartItem = CartItem.builder()
-                .customerId(CURRENT_USER_ID_SAMPLE)
-                .productId(PRODUCT_ID_SAMPLE)
-                .quantity(1)
-                .build();
-            CartItemDeleteVm cartItemDeleteVm =
-                new CartItemDeleteVm(existingCartItem.getProductId(), existingCartItem.getQuantity() + 1);
+            CartItemDeleteVm cartItemDeleteVm = new CartItemDeleteVm(PRODUCT_ID_SAMPLE, 2);
             List<CartItemDeleteVm> cartItemDeleteVms = List.of(cartItemDeleteVm);
 
-            when(cartItemRepository.findByCustomerIdAndProductIdIn(any(), any())).thenReturn(List.of(existingCartItem));
+            when(cartItemRepository.decrementOrDelete(any(), any(), any())).thenReturn(List.of());
 
             List<CartItemGetVm> cartItemGetVms = cartItemService.deleteOrAdjustCartItem(cartItemDeleteVms);
 
-            verify(cartItemRepository).deleteAll(List.of(existingCartItem));
+            verify(cartItemRepository).decrementOrDelete(
+                CURRENT_USER_ID_SAMPLE, new Long[] {PRODUCT_ID_SAMPLE}, new Integer[] {cartItemDeleteVm.quantity()});
             assertEquals(0, cartItemGetVms.size());
         }
 
         @Test
         void testDeleteOrAdjustCartItem_whenDeleteQuantityLessThanCartItemQuantity_shouldUpdateCartItem() {
             CartItemDeleteVm cartItemDeleteVm = new CartItemDeleteVm(PRODUCT_ID_SAMPLE, 1);
-            CartItem existingCartItem = CartItem.builder()
+            CartItem adjustedCartItem = CartItem.builder()
                 .customerId(CURRENT_USER_ID_SAMPLE)
                 .productId(cartItemDeleteVm.productId())
-                .quantity(cartItemDeleteVm.quantity() + 1)
+                .quantity(1)
                 .build();
             List<CartItemDeleteVm> cartItemDeleteVms = List.of(cartItemDeleteVm);
-            int expectedQuantity = existingCartItem.getQuantity() - cartItemDeleteVm.quantity();
 
-            when(cartItemRepository.findByCustomerIdAndProductIdIn(any(), any())).thenReturn(List.of(existingCartItem));
-            when(cartItemRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+            when(cartItemRepository.decrementOrDelete(any(), any(), any())).thenReturn(List.of(adjustedCartItem));
 
             List<CartItemGetVm> cartItemGetVms = cartItemService.deleteOrAdjustCartItem(cartItemDeleteVms);
 
-            verify(cartItemRepository).saveAll(List.of(existingCartItem));
             assertEquals(1, cartItemGetVms.size());
-            assertEquals(expectedQuantity, cartItemGetVms.get(0).quantity());
+            assertEquals(adjustedCartItem.getQuantity(), cartItemGetVms.get(0).quantity());
+        }
+
+        @Test
+        void testDeleteOrAdjustCartItem_whenProductIdIsDuplicated_shouldSumQuantitiesIntoOneStatement() {
+            List<CartItemDeleteVm> cartItemDeleteVms = List.of(
+                new CartItemDeleteVm(PRODUCT_ID_SAMPLE, 1),
+                new CartItemDeleteVm(2L, 1),
+                new CartItemDeleteVm(PRODUCT_ID_SAMPLE, 2));
+
+            when(cartItemRepository.decrementOrDelete(any(), any(), any())).thenReturn(List.of());
+
+            cartItemService.deleteOrAdjustCartItem(cartItemDeleteVms);
+
+            verify(cartItemRepository).decrementOrDelete(
+                CURRENT_USER_ID_SAMPLE, new Long[] {PRODUCT_ID_SAMPLE, 2L}, new Integer[] {3, 1});
+        }
+
+        @Test
+        void testDeleteOrAdjustCartItem_whenRequestIsEmpty_shouldNotHitRepository() {
+            List<CartItemGetVm> cartItemGetVms = cartItemService.deleteOrAdjustCartItem(List.of());
+
+            verify(cartItemRepository, never()).decrementOrDelete(any(), any(), any());
+            assertEquals(0, cartItemGetVms.size());
         }
     }
 }
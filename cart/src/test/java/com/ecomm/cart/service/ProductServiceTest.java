@@ -0,0 +1,225 @@
+package com.ecomm.cart.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ecomm.cart.config.ProductServiceProperties;
+import com.ecomm.cart.viewmodel.ProductThumbnailVm;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Runs the client against a local stub of the product service multi-get endpoint that knows every id below 1000.
+ */
+class ProductServiceTest {
+    private static final long MISSING_PRODUCT_ID = 1000L;
+
+    private final List<List<Long>> requestedIds = new CopyOnWriteArrayList<>();
+    private volatile CountDownLatch releaseResponses = new CountDownLatch(0);
+    private volatile int responseStatus = 200;
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(ProductService.LIST_PRODUCTS_PATH, this::listProducts);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testExistsById_whenLookedUpTwice_shouldAnswerSecondFromCache() {
+        ProductService productService = productService(Duration.ZERO, 100);
+
+        assertTrue(productService.existsById(1L));
+        assertFalse(productService.existsById(MISSING_PRODUCT_ID));
+        assertTrue(productService.existsById(1L));
+        assertFalse(productService.existsById(MISSING_PRODUCT_ID));
+
+        assertThat(requestedIds).containsExactly(List.of(1L), List.of(MISSING_PRODUCT_ID));
+    }
+
+    @Test
+    void testFindMissingIds_whenSeveralIds_shouldFetchThemInOneCall() {
+        ProductService productService = productService(Duration.ZERO, 100);
+
+        Set<Long> missingIds = productService.findMissingIds(List.of(1L, MISSING_PRODUCT_ID, 2L));
+
+        assertThat(missingIds).containsExactly(MISSING_PRODUCT_ID);
+        assertThat(requestedIds).containsExactly(List.of(1L, MISSING_PRODUCT_ID, 2L));
+    }
+
+    @Test
+    void testFindThumbnails_whenSomeProductsExist_shouldReturnTheirThumbnailsAndCacheThem() {
+        ProductService productService = productService(Duration.ZERO, 100);
+
+        Map<Long, ProductThumbnailVm> thumbnails = productService.findThumbnails(List.of(1L, MISSING_PRODUCT_ID));
+
+        assertThat(thumbnails).containsOnlyKeys(1L);
+        assertThat(thumbnails.get(1L).slug()).isEqualTo("product-1");
+        assertThat(productService.findCachedThumbnails(List.of(1L, 2L))).containsOnlyKeys(1L);
+        assertFalse(productService.existsById(MISSING_PRODUCT_ID));
+        assertThat(requestedIds).hasSize(1);
+    }
+
+    @Test
+    void testFindMissingIds_whenMoreIdsThanBatchSize_shouldSplitIntoBatches() {
+        ProductService productService = productService(Duration.ZERO, 2);
+
+        assertThat(productService.findMissingIds(List.of(1L, 2L, 3L))).isEmpty();
+
+        assertThat(requestedIds).containsExactly(List.of(1L, 2L), List.of(3L));
+    }
+
+    @Test
+    void testExistsById_whenConcurrentLookupsOfSameId_shouldShareOneCall() throws Exception {
+        ProductService productService = productService(Duration.ZERO, 100);
+        releaseResponses = new CountDownLatch(1);
+
+        List<Future<Boolean>> lookups = runConcurrently(8, i -> productService.existsById(1L));
+        Thread.sleep(200);
+        releaseResponses.countDown();
+
+        for (Future<Boolean> lookup : lookups) {
+            assertTrue(lookup.get());
+        }
+        assertThat(requestedIds).containsExactly(List.of(1L));
+    }
+
+    @Test
+    void testExistsById_whenConcurrentLookupsOfDistinctIds_shouldBatchThemIntoOneCall() throws Exception {
+        ProductService productService = productService(Duration.ofMillis(500), 8);
+
+        List<Future<Boolean>> lookups = runConcurrently(8, i -> productService.existsById((long) i + 1));
+
+        for (Future<Boolean> lookup : lookups) {
+            assertTrue(lookup.get());
+        }
+        assertThat(requestedIds).hasSize(1);
+        assertThat(requestedIds.get(0)).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L);
+    }
+
+    @Test
+    void testExistsById_whenProductServiceFails_shouldThrowAndNotCacheTheFailure() {
+        ProductService productService = productService(Duration.ZERO, 100);
+        responseStatus = 503;
+
+        assertThrows(RestClientException.class, () -> productService.existsById(1L));
+
+        responseStatus = 200;
+        assertTrue(productService.existsById(1L));
+        assertThat(requestedIds).hasSize(2);
+    }
+
+    @Test
+    void testExistsById_whenLookupThrowsAnError_shouldNotLeaveLaterLookupsWaiting() {
+        AtomicBoolean failNextCall = new AtomicBoolean(true);
+        ProductService productService = productService(Duration.ZERO, 100, (request, body, execution) -> {
+            if (failNextCall.getAndSet(false)) {
+                throw new StackOverflowError();
+            }
+            return execution.execute(request, body);
+        });
+
+        assertThrows(StackOverflowError.class, () -> productService.existsById(1L));
+
+        assertTrue(productService.existsById(1L));
+        assertThat(requestedIds).hasSize(1);
+    }
+
+    private ProductService productService(Duration batchWindow, int maxBatchSize) {
+        return productService(batchWindow, maxBatchSize, (request, body, execution) -> execution.execute(request, body));
+    }
+
+    private ProductService productService(Duration batchWindow, int maxBatchSize,
+                                          ClientHttpRequestInterceptor interceptor) {
+        ProductServiceProperties properties = new ProductServiceProperties(
+            "http://localhost:" + server.getAddress().getPort(), true, 100, Duration.ofMinutes(1),
+            Duration.ofMinutes(1), batchWindow, maxBatchSize, Duration.ofSeconds(5));
+        // Like the production transport, the client must not retry failed calls on its own
+        RestClient restClient = RestClient.builder()
+            .requestFactory(new JdkClientHttpRequestFactory())
+            .requestInterceptor(interceptor)
+            .build();
+        return new ProductService(restClient, properties, new SimpleMeterRegistry());
+    }
+
+    private static List<Future<Boolean>> runConcurrently(int callers, LookupTask task) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>(callers);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        for (int i = 0; i < callers; i++) {
+            int caller = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.lookup(caller);
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        return futures;
+    }
+
+    private void listProducts(HttpExchange exchange) throws IOException {
+        List<Long> productIds = Arrays.stream(exchange.getRequestURI().getQuery().split("&"))
+            .map(parameter -> Long.valueOf(parameter.substring(parameter.indexOf('=') + 1)))
+            .toList();
+        requestedIds.add(productIds);
+        try {
+            releaseResponses.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        byte[] body = productIds.stream()
+            .filter(productId -> productId < MISSING_PRODUCT_ID)
+            .map(productId -> "{\"id\":%d,\"name\":\"product-%d\",\"slug\":\"product-%d\",\"thumbnailUrl\":\"\"}"
+                .formatted(productId, productId, productId))
+            .collect(Collectors.joining(",", "[", "]"))
+            .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(responseStatus, body.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+        }
+    }
+
+    @FunctionalInterface
+    private interface LookupTask {
+        boolean lookup(int caller) throws Exception;
+    }
+}